@@ -0,0 +1,124 @@
+package com.mozilla.speechlibrary.benchmark;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.mozilla.speechlibrary.SpeechServiceSettings;
+import com.mozilla.speechlibrary.Vad;
+import com.mozilla.speechlibrary.audio.AudioSources;
+import com.mozilla.speechlibrary.model.DecoderConfig;
+import com.mozilla.speechlibrary.vad.EnergyVadEngine;
+import com.mozilla.speechlibrary.vad.WebRtcVadEngine;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assume.assumeNotNull;
+
+/**
+ * Runs the benchmarks on a device and logs the results under the "Benchmark" tag. The ones
+ * decoding speech need a downloaded model and a recording on the device:
+ * {@code -e modelRoot <model folder> -e recording <16kHz mono wav>}, the endpointing replay a
+ * folder of single utterance recordings: {@code -e corpus <folder>}. They are skipped otherwise.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BenchmarkTest {
+
+    private static final String TAG = "Benchmark";
+
+    @NonNull
+    private static Context context() {
+        return InstrumentationRegistry.getInstrumentation().getTargetContext();
+    }
+
+    @NonNull
+    private static String argument(@NonNull String name) {
+        String value = InstrumentationRegistry.getArguments().getString(name);
+        assumeNotNull(value);
+        return value;
+    }
+
+    @NonNull
+    private static short[] recording() throws IOException {
+        return FeedChunkBenchmark.readAll(AudioSources.forFile(context(), new File(argument("recording"))));
+    }
+
+    @Test
+    public void fft() {
+        for (MicroBenchmark.Result result : FFTBenchmark.run(1000, 10000)) {
+            Log.i(TAG, result.toString());
+        }
+    }
+
+    @Test
+    public void vad() throws IOException {
+        File file = new File(argument("recording"));
+
+        List<VadBenchmark.Result> results = VadBenchmark.run(AudioSources.forFile(context(), file), 320,
+                new WebRtcVadEngine(Vad.MODE_VERY_AGGRESSIVE, 16000),
+                new WebRtcVadEngine(Vad.MODE_QUALITY, 16000),
+                new EnergyVadEngine(16000));
+        for (VadBenchmark.Result result : results) {
+            Log.i(TAG, result.toString());
+        }
+    }
+
+    @Test
+    public void feedChunk() throws IOException {
+        String modelRoot = argument("modelRoot");
+        short[] audio = recording();
+
+        for (FeedChunkBenchmark.Result result : FeedChunkBenchmark.run(modelRoot, audio, 20, 20, 100, 200, 300)) {
+            Log.i(TAG, result.toString());
+        }
+    }
+
+    @Test
+    public void decoderSwitch() throws IOException {
+        String modelRoot = argument("modelRoot");
+        short[] audio = recording();
+
+        List<String> names = Arrays.asList("scorer", "no scorer", "scorer, beam 100, hot-words");
+        List<DecoderConfig> configs = Arrays.asList(
+                DecoderConfig.forModelRoot(modelRoot),
+                new DecoderConfig(null, 0, Collections.emptyMap()),
+                new DecoderConfig(DecoderConfig.forModelRoot(modelRoot).getScorerPath(), 100,
+                        Collections.singletonMap("mozilla", 10f)));
+        for (DecoderSwitchBenchmark.Result result : DecoderSwitchBenchmark.run(modelRoot, names, configs, audio)) {
+            Log.i(TAG, result.toString());
+        }
+    }
+
+    @Test
+    public void endpointReplay() throws IOException {
+        String modelRoot = argument("modelRoot");
+        File[] files = new File(argument("corpus")).listFiles(AudioSources::isSupported);
+        assumeNotNull((Object) files);
+
+        List<short[]> corpus = new ArrayList<>();
+        for (File file : files) {
+            corpus.add(FeedChunkBenchmark.readAll(AudioSources.forFile(context(), file)));
+        }
+        SpeechServiceSettings settings = new SpeechServiceSettings.Builder()
+                .withEarlyEndpointing(true, 300, 500)
+                .withPartialResults(250, 1)
+                .build();
+
+        List<EndpointReplayBenchmark.Result> results = EndpointReplayBenchmark.run(modelRoot, settings, corpus);
+        for (EndpointReplayBenchmark.Result result : results) {
+            Log.i(TAG, result.toString());
+        }
+        Log.i(TAG, EndpointReplayBenchmark.summarize(results));
+    }
+}
@@ -0,0 +1,97 @@
+package com.mozilla.speechlibrary.benchmark;
+
+import androidx.annotation.NonNull;
+
+import com.mozilla.speechlibrary.model.CachedModel;
+import com.mozilla.speechlibrary.model.DecoderConfig;
+import com.mozilla.speechlibrary.model.ModelBackend;
+import com.mozilla.speechlibrary.model.ModelCache;
+import com.mozilla.speechlibrary.model.ModelStream;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Switches a cached model between decoder settings, for example the full scorer and a small
+ * command grammar scorer with hot-words, and times the switch and the decoding of the same
+ * recording with each one.
+ */
+public class DecoderSwitchBenchmark {
+
+    public static class Result {
+
+        @NonNull
+        public final String mName;
+        public long mSwitchNanos;
+        public long mDecodeNanos;
+        public long mFinishNanos;
+        public long mAudioMs;
+        public String mTranscription;
+
+        Result(@NonNull String name) {
+            mName = name;
+        }
+
+        public double getSwitchMs() {
+            return mSwitchNanos / 1e6;
+        }
+
+        public double getRealTimeFactor() {
+            return mAudioMs > 0 ? mDecodeNanos / 1e6 / mAudioMs : 0;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format("%s: %.1f ms switch, %.3f RTF, %.1f ms finish, \"%s\"",
+                    mName, getSwitchMs(), getRealTimeFactor(), mFinishNanos / 1e6, mTranscription);
+        }
+    }
+
+    /**
+     * Every configuration is switched to from the first one, so each switch is a real one.
+     *
+     * @param names label of each configuration.
+     * @param audio 16kHz mono recording, see {@link FeedChunkBenchmark#readAll}.
+     */
+    @NonNull
+    public static List<Result> run(@NonNull String modelRoot,
+                                   @NonNull List<String> names,
+                                   @NonNull List<DecoderConfig> configs,
+                                   @NonNull short[] audio) throws IOException {
+        CachedModel cached = ModelCache.getInstance().acquire(modelRoot);
+        List<Result> results = new ArrayList<>();
+        try {
+            ModelBackend model = cached.getModel();
+            synchronized (cached.getInferenceLock()) {
+                for (int i = 0; i < configs.size(); i++) {
+                    if (i > 0) {
+                        cached.createStream(configs.get(0)).freeStream();
+                    }
+
+                    Result result = new Result(names.get(i));
+                    result.mAudioMs = audio.length * 1000L / model.sampleRate();
+
+                    long start = System.nanoTime();
+                    ModelStream stream = cached.createStream(configs.get(i));
+                    result.mSwitchNanos = System.nanoTime() - start;
+
+                    start = System.nanoTime();
+                    stream.feedAudioContent(audio, audio.length);
+                    long finishStart = System.nanoTime();
+                    result.mTranscription = stream.finishStream();
+                    result.mFinishNanos = System.nanoTime() - finishStart;
+                    result.mDecodeNanos = System.nanoTime() - start;
+
+                    results.add(result);
+                }
+            }
+
+        } finally {
+            cached.release();
+        }
+
+        return results;
+    }
+}
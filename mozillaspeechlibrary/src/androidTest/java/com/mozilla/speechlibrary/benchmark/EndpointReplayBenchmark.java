@@ -0,0 +1,189 @@
+package com.mozilla.speechlibrary.benchmark;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.mozilla.speechlibrary.SpeechServiceSettings;
+import com.mozilla.speechlibrary.endpoint.EndpointReason;
+import com.mozilla.speechlibrary.endpoint.Endpointer;
+import com.mozilla.speechlibrary.endpoint.Endpointers;
+import com.mozilla.speechlibrary.endpoint.HypothesisEndpointPolicy;
+import com.mozilla.speechlibrary.model.CachedModel;
+import com.mozilla.speechlibrary.model.DecoderConfig;
+import com.mozilla.speechlibrary.model.ModelCache;
+import com.mozilla.speechlibrary.model.ModelStream;
+import com.mozilla.speechlibrary.processing.AudioProcessorChain;
+import com.mozilla.speechlibrary.processing.AudioProcessors;
+import com.mozilla.speechlibrary.vad.VadEngine;
+import com.mozilla.speechlibrary.vad.VadEngines;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replays recordings through the endpointing of a single utterance session twice, with the
+ * fixed silence hangover and with the hypothesis stability policy, and compares the time to
+ * the final result: the audio from the end of the voice to the endpoint, plus finishing the
+ * stream. Positions are in audio time so the replay runs as fast as the decoder allows.
+ */
+public class EndpointReplayBenchmark {
+
+    private static final int SAMPLE_RATE = 16000;
+    private static final int FRAME_SIZE = 160;
+
+    public static class Pass {
+
+        @NonNull
+        public EndpointReason mReason = EndpointReason.NONE;
+        public long mVoiceEndMs;
+        public long mEndpointMs;
+        public long mFinishNanos;
+        public String mTranscription;
+
+        public double getTimeToFinalMs() {
+            return mEndpointMs - mVoiceEndMs + mFinishNanos / 1e6;
+        }
+    }
+
+    public static class Result {
+
+        public final int mIndex;
+        public final Pass mFixed;
+        public final Pass mEarly;
+
+        Result(int index, @NonNull Pass fixed, @NonNull Pass early) {
+            mIndex = index;
+            mFixed = fixed;
+            mEarly = early;
+        }
+
+        public boolean isEndedEarly() {
+            return mEarly.mReason == EndpointReason.STABLE_HYPOTHESIS;
+        }
+
+        /**
+         * False when ending early cut words the fixed policy got.
+         */
+        public boolean isSameTranscription() {
+            return mFixed.mTranscription != null && mFixed.mTranscription.equals(mEarly.mTranscription);
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format("#%d: fixed %.0fms, early %.0fms (%s)%s",
+                    mIndex, mFixed.getTimeToFinalMs(), mEarly.getTimeToFinalMs(), mEarly.mReason,
+                    isSameTranscription() ? "" : ", \"" + mFixed.mTranscription + "\" became \"" + mEarly.mTranscription + "\"");
+        }
+    }
+
+    /**
+     * @param settings endpointing, VAD, processing and partial interval to replay with, the
+     *                 early endpointing parameters are used for the second pass even if disabled.
+     * @param corpus 16kHz mono recordings of one utterance each, see
+     *               {@link FeedChunkBenchmark#readAll}.
+     */
+    @NonNull
+    public static List<Result> run(@NonNull String modelRoot,
+                                   @NonNull SpeechServiceSettings settings,
+                                   @NonNull List<short[]> corpus) throws IOException {
+        HypothesisEndpointPolicy policy = new HypothesisEndpointPolicy(
+                settings.getEarlyMinSilenceMs(),
+                settings.getStabilityWindowMs(),
+                settings.getCommandPhrases());
+        DecoderConfig config = DecoderConfig.fromSettings(settings, modelRoot);
+
+        CachedModel cached = ModelCache.getInstance().acquire(modelRoot);
+        List<Result> results = new ArrayList<>();
+        try {
+            synchronized (cached.getInferenceLock()) {
+                for (int i = 0; i < corpus.size(); i++) {
+                    Pass fixed = replay(cached, config, settings, corpus.get(i), null);
+                    Pass early = replay(cached, config, settings, corpus.get(i), policy);
+                    results.add(new Result(i, fixed, early));
+                }
+            }
+
+        } finally {
+            cached.release();
+        }
+
+        return results;
+    }
+
+    @NonNull
+    private static Pass replay(@NonNull CachedModel cached,
+                               @NonNull DecoderConfig config,
+                               @NonNull SpeechServiceSettings settings,
+                               @NonNull short[] audio,
+                               @Nullable HypothesisEndpointPolicy policy) throws IOException {
+        Pass pass = new Pass();
+        Endpointer endpointer = Endpointers.fromSettings(settings, SAMPLE_RATE);
+        AudioProcessorChain processor = AudioProcessors.fromSettings(settings, SAMPLE_RATE);
+        long partialSamples = Math.max(FRAME_SIZE, settings.getPartialIntervalMs() * SAMPLE_RATE / 1000);
+        short[] frame = new short[FRAME_SIZE];
+
+        ModelStream stream = cached.createStream(config);
+        try (VadEngine vad = VadEngines.create(settings, SAMPLE_RATE)) {
+            vad.open();
+
+            String text = "";
+            long fed = 0;
+            long changed = 0;
+            for (int offset = 0; offset < audio.length && !endpointer.isDone(); offset += FRAME_SIZE) {
+                int length = Math.min(FRAME_SIZE, audio.length - offset);
+                System.arraycopy(audio, offset, frame, 0, length);
+                processor.process(frame, length);
+
+                endpointer.feed(vad.isVoice(frame, length), frame, length);
+                stream.feedAudioContent(frame, length);
+                fed += length;
+
+                if (policy != null && fed % partialSamples < length) {
+                    String hypothesis = stream.intermediateDecode();
+                    if (!hypothesis.equals(text)) {
+                        text = hypothesis;
+                        changed = fed;
+                    }
+                }
+                if (policy != null && policy.isOver(endpointer, text,
+                        fed * 1000 / SAMPLE_RATE, changed * 1000 / SAMPLE_RATE)) {
+                    endpointer.end(EndpointReason.STABLE_HYPOTHESIS);
+                }
+            }
+        }
+
+        pass.mReason = endpointer.getReason();
+        pass.mEndpointMs = endpointer.getElapsedMs();
+        pass.mVoiceEndMs = pass.mEndpointMs - endpointer.getTrailingSilenceMs();
+
+        long start = System.nanoTime();
+        pass.mTranscription = stream.finishStream();
+        pass.mFinishNanos = System.nanoTime() - start;
+
+        return pass;
+    }
+
+    /**
+     * Mean time to final result of each policy, how often the early one fired, and how often
+     * it changed the transcription.
+     */
+    @NonNull
+    public static String summarize(@NonNull List<Result> results) {
+        double fixed = 0;
+        double early = 0;
+        int ended = 0;
+        int changed = 0;
+        for (Result result : results) {
+            fixed += result.mFixed.getTimeToFinalMs();
+            early += result.mEarly.getTimeToFinalMs();
+            ended += result.isEndedEarly() ? 1 : 0;
+            changed += result.isSameTranscription() ? 0 : 1;
+        }
+        int count = Math.max(1, results.size());
+        return String.format("%d recordings: fixed %.0fms, early %.0fms to final result, " +
+                        "%d ended early, %d transcriptions changed",
+                results.size(), fixed / count, early / count, ended, changed);
+    }
+}
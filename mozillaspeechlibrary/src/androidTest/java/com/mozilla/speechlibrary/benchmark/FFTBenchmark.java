@@ -0,0 +1,60 @@
+package com.mozilla.speechlibrary.benchmark;
+
+import androidx.annotation.NonNull;
+
+import com.github.axet.audiolibrary.encoders.FFT;
+import com.github.axet.audiolibrary.encoders.Sound;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the commons-math based {@link Sound#fft} against the reusable {@link FFT} engine
+ * on 20ms capture frames.
+ */
+public class FFTBenchmark {
+
+    private static final int FRAME_SIZE = 320;
+    private static final int SAMPLE_RATE = 16000;
+    private static final int BANDS = 16;
+
+    // Keeps the JIT from dropping the measured work
+    private static volatile double sSink;
+
+    @NonNull
+    public static List<MicroBenchmark.Result> run(int warmupIterations, int iterations) {
+        short[] frame = new short[FRAME_SIZE];
+        Random random = new Random(42);
+        for (int i = 0; i < frame.length; i++) {
+            frame[i] = (short) (Math.sin(i * 0.3) * 8000 + random.nextGaussian() * 500);
+        }
+
+        FFT fft = new FFT(FFT.nextPowerOfTwo(FRAME_SIZE), false);
+        FFT windowed = new FFT(FFT.nextPowerOfTwo(FRAME_SIZE), true);
+        float[] power = new float[fft.getSize() / 2];
+        float[] bands = new float[BANDS];
+
+        List<MicroBenchmark.Result> results = new ArrayList<>();
+        results.add(MicroBenchmark.run("Sound.fft (commons-math) + mean", warmupIterations, iterations, () -> {
+            double[] data = Sound.fft(frame, 0, frame.length);
+            double sum = 0;
+            for (double value : data) {
+                sum += value;
+            }
+            sSink = sum / data.length;
+        }));
+        results.add(MicroBenchmark.run("FFT.meanPowerDb", warmupIterations, iterations, () ->
+                sSink = fft.meanPowerDb(frame, 0, frame.length)));
+        results.add(MicroBenchmark.run("FFT.powerSpectrum", warmupIterations, iterations, () -> {
+            fft.powerSpectrum(frame, 0, frame.length, power);
+            sSink = power[1];
+        }));
+        results.add(MicroBenchmark.run("FFT.bandEnergies (Hann, " + BANDS + " bands)", warmupIterations, iterations, () -> {
+            windowed.bandEnergies(frame, 0, frame.length, SAMPLE_RATE, bands);
+            sSink = bands[0];
+        }));
+
+        return results;
+    }
+}
@@ -0,0 +1,126 @@
+package com.mozilla.speechlibrary.benchmark;
+
+import android.os.Debug;
+
+import androidx.annotation.NonNull;
+
+import com.mozilla.speechlibrary.audio.AudioSource;
+import com.mozilla.speechlibrary.model.CachedModel;
+import com.mozilla.speechlibrary.model.DecoderConfig;
+import com.mozilla.speechlibrary.model.ModelBackend;
+import com.mozilla.speechlibrary.model.ModelCache;
+import com.mozilla.speechlibrary.model.ModelStream;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Feeds the same recording to DeepSpeech in chunks of different sizes. Reports the decoder CPU
+ * time per second of audio and the latency after the last sample: feeding what's left of the
+ * chunk plus finishing the stream, what the user waits for once the endpoint is found.
+ */
+public class FeedChunkBenchmark {
+
+    public static class Result {
+
+        public final int mChunkMs;
+        public long mAudioMs;
+        public long mCpuNanos;
+        public long mFinishLatencyNanos;
+        public String mTranscription;
+
+        Result(int chunkMs) {
+            mChunkMs = chunkMs;
+        }
+
+        public double getCpuMsPerAudioSecond() {
+            return mAudioMs > 0 ? mCpuNanos / 1e6 / (mAudioMs / 1000.0) : 0;
+        }
+
+        public double getFinishLatencyMs() {
+            return mFinishLatencyNanos / 1e6;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format("%dms chunks: %.1f ms CPU/s of audio, %.1f ms final latency",
+                    mChunkMs, getCpuMsPerAudioSecond(), getFinishLatencyMs());
+        }
+    }
+
+    /**
+     * @param audio the whole recording, 16kHz mono, see {@link #readAll(AudioSource)}.
+     * @param frameMs capture frame size, the chunks are built from whole frames like the client does.
+     */
+    @NonNull
+    public static List<Result> run(@NonNull String modelRoot, @NonNull short[] audio, int frameMs,
+                                   @NonNull int... chunkSizesMs) throws IOException {
+        CachedModel cached = ModelCache.getInstance().acquire(modelRoot);
+        List<Result> results = new ArrayList<>();
+        try {
+            ModelBackend model = cached.getModel();
+            int samplesPerMs = model.sampleRate() / 1000;
+            int frameSamples = frameMs * samplesPerMs;
+
+            synchronized (cached.getInferenceLock()) {
+                for (int chunkMs : chunkSizesMs) {
+                    int chunkSamples = Math.max(frameSamples, chunkMs * samplesPerMs / frameSamples * frameSamples);
+                    short[] chunk = new short[chunkSamples];
+                    Result result = new Result(chunkMs);
+                    result.mAudioMs = audio.length / samplesPerMs;
+
+                    ModelStream stream = cached.createStream(DecoderConfig.forModelRoot(modelRoot));
+                    long cpuStart = Debug.threadCpuTimeNanos();
+                    int offset = 0;
+                    while (audio.length - offset > chunkSamples) {
+                        System.arraycopy(audio, offset, chunk, 0, chunkSamples);
+                        stream.feedAudioContent(chunk, chunkSamples);
+                        offset += chunkSamples;
+                    }
+
+                    long finishStart = System.nanoTime();
+                    int rest = audio.length - offset;
+                    System.arraycopy(audio, offset, chunk, 0, rest);
+                    stream.feedAudioContent(chunk, rest);
+                    result.mTranscription = stream.finishStream();
+                    result.mFinishLatencyNanos = System.nanoTime() - finishStart;
+                    result.mCpuNanos = Debug.threadCpuTimeNanos() - cpuStart;
+
+                    results.add(result);
+                }
+            }
+
+        } finally {
+            cached.release();
+        }
+
+        return results;
+    }
+
+    /**
+     * Reads a whole source, the source is opened and closed here.
+     */
+    @NonNull
+    public static short[] readAll(@NonNull AudioSource source) throws IOException {
+        short[] audio = new short[source.getSampleRate() > 0 ? source.getSampleRate() : 16000];
+        int length = 0;
+        source.open();
+        try {
+            int read;
+            while ((read = source.read(audio, length, audio.length - length)) > 0) {
+                length += read;
+                if (length == audio.length) {
+                    audio = Arrays.copyOf(audio, audio.length * 2);
+                }
+            }
+
+        } finally {
+            source.close();
+        }
+
+        return Arrays.copyOf(audio, length);
+    }
+}
@@ -0,0 +1,48 @@
+package com.mozilla.speechlibrary.benchmark;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Minimal timing harness for the instrumented benchmarks, JMH can't run against an Android
+ * library module.
+ */
+public class MicroBenchmark {
+
+    public static class Result {
+
+        @NonNull
+        public final String mName;
+        public final long mIterations;
+        public final double mNanosPerOp;
+
+        Result(@NonNull String name, long iterations, double nanosPerOp) {
+            mName = name;
+            mIterations = iterations;
+            mNanosPerOp = nanosPerOp;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format("%s: %.1f ns/op (%d ops)", mName, mNanosPerOp, mIterations);
+        }
+    }
+
+    /**
+     * Runs {@code body} for the warm up iterations, then times the measured ones.
+     */
+    @NonNull
+    public static Result run(@NonNull String name, int warmupIterations, int iterations, @NonNull Runnable body) {
+        for (int i = 0; i < warmupIterations; i++) {
+            body.run();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            body.run();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        return new Result(name, iterations, (double) elapsed / Math.max(1, iterations));
+    }
+}
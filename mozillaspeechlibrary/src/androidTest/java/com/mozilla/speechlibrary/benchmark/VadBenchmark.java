@@ -0,0 +1,109 @@
+package com.mozilla.speechlibrary.benchmark;
+
+import androidx.annotation.NonNull;
+
+import com.mozilla.speechlibrary.audio.AudioSource;
+import com.mozilla.speechlibrary.vad.VadEngine;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Feeds the same audio to several {@link VadEngine}s frame by frame, timing each one and
+ * counting how often its decision agrees with the first engine.
+ */
+public class VadBenchmark {
+
+    public static class Result {
+
+        @NonNull
+        public final String mEngine;
+        public long mFrames;
+        public long mVoiceFrames;
+        public long mAgreedFrames;
+        public long mNanos;
+
+        Result(@NonNull String engine) {
+            mEngine = engine;
+        }
+
+        public double getNanosPerFrame() {
+            return mFrames > 0 ? (double) mNanos / mFrames : 0;
+        }
+
+        /**
+         * Fraction of the frames where this engine decided like the reference one.
+         */
+        public double getAgreement() {
+            return mFrames > 0 ? (double) mAgreedFrames / mFrames : 0;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format("%s: %.0f ns/frame, %d/%d voice, %.1f%% agreement",
+                    mEngine, getNanosPerFrame(), mVoiceFrames, mFrames, getAgreement() * 100);
+        }
+    }
+
+    /**
+     * Runs the engines over the whole source, the source and engines are opened and closed here.
+     *
+     * @param frameSize samples per frame, 10, 20 or 30ms for the WebRTC engine.
+     */
+    @NonNull
+    public static List<Result> run(@NonNull AudioSource source, int frameSize, @NonNull VadEngine... engines)
+            throws IOException {
+        List<Result> results = new ArrayList<>();
+        for (VadEngine engine : engines) {
+            results.add(new Result(engine.getClass().getSimpleName()));
+        }
+
+        short[] frame = new short[frameSize];
+        boolean[] decisions = new boolean[engines.length];
+        source.open();
+        try {
+            for (VadEngine engine : engines) {
+                engine.open();
+            }
+
+            int length;
+            while ((length = readFrame(source, frame)) == frameSize) {
+                for (int e = 0; e < engines.length; e++) {
+                    long start = System.nanoTime();
+                    decisions[e] = engines[e].isVoice(frame, length);
+                    Result result = results.get(e);
+                    result.mNanos += System.nanoTime() - start;
+                    result.mFrames++;
+                    if (decisions[e]) {
+                        result.mVoiceFrames++;
+                    }
+                    if (decisions[e] == decisions[0]) {
+                        result.mAgreedFrames++;
+                    }
+                }
+            }
+
+        } finally {
+            for (VadEngine engine : engines) {
+                engine.close();
+            }
+            source.close();
+        }
+
+        return results;
+    }
+
+    private static int readFrame(@NonNull AudioSource source, @NonNull short[] frame) throws IOException {
+        int length = 0;
+        while (length < frame.length) {
+            int read = source.read(frame, length, frame.length - length);
+            if (read <= 0) {
+                break;
+            }
+            length += read;
+        }
+        return length;
+    }
+}
@@ -1,39 +1,79 @@
 #include "webrtc/common_audio/vad/include/webrtc_vad.h"
 #include "webrtc/common_audio/signal_processing/include/signal_processing_library.h"
+#include <stdint.h>
 #include <stdlib.h>
 #include "webrtc/common_audio/include/typedefs.h"
 #include <jni.h>
 
-#define AGGRESSIVENESS 3
-VadInst* internalHandle;
-int resultVad;
-
-JNIEXPORT jint JNICALL Java_com_mozilla_speechlibrary_Vad_start (JNIEnv * env, jobject obj){
-    int ret_state = 0;
-    internalHandle = NULL;
-
-    ret_state = WebRtcVad_Create(&internalHandle);
-    if (ret_state == -1) return -1;
-    ret_state =  WebRtcVad_Init(internalHandle);
-    if (ret_state == -1) return -2;
-    ret_state = WebRtcVad_set_mode(internalHandle, AGGRESSIVENESS);
-    if (ret_state == -1) return -3;
-    return ret_state;
+// Every Vad object owns its VadInst, the pointer is kept in the Java object as a jlong handle
+
+JNIEXPORT jlong JNICALL Java_com_mozilla_speechlibrary_Vad_nativeCreate(JNIEnv * env, jclass clazz, jint mode) {
+    VadInst* handle = NULL;
+
+    if (WebRtcVad_Create(&handle) == -1) return 0;
+    if (WebRtcVad_Init(handle) == -1 || WebRtcVad_set_mode(handle, mode) == -1) {
+        WebRtcVad_Free(handle);
+        return 0;
+    }
+    return (jlong) (intptr_t) handle;
 }
 
-JNIEXPORT jint JNICALL Java_com_mozilla_speechlibrary_Vad_stop(JNIEnv * env, jobject object) {
-    if (WebRtcVad_Free(internalHandle) == 0) {
-        internalHandle = NULL;
+JNIEXPORT void JNICALL Java_com_mozilla_speechlibrary_Vad_nativeFree(JNIEnv * env, jclass clazz, jlong handle) {
+    if (handle != 0) {
+        WebRtcVad_Free((VadInst*) (intptr_t) handle);
     }
 }
 
-JNIEXPORT jint JNICALL Java_com_mozilla_speechlibrary_Vad_isSilence(JNIEnv * env, jobject object) {
-    return resultVad;
+// The longest frame WebRTC accepts, 30ms at 48kHz
+#define MAX_FRAME_LENGTH 1440
+// Decisions are written back in blocks, no array is pinned while the frames are processed
+#define DECISION_BLOCK 64
+
+JNIEXPORT jint JNICALL Java_com_mozilla_speechlibrary_Vad_nativeProcess(JNIEnv * env, jclass clazz, jlong handle, jint sampleRate, jshortArray bytes, jint size) {
+    int16_t frame[MAX_FRAME_LENGTH];
+    if (size <= 0 || size > MAX_FRAME_LENGTH) return -1;
+    (*env)->GetShortArrayRegion(env, bytes, 0, size, frame);
+    if ((*env)->ExceptionCheck(env)) return -1;
+    return WebRtcVad_Process((VadInst*) (intptr_t) handle, sampleRate, frame, size);
 }
 
-JNIEXPORT jint JNICALL Java_com_mozilla_speechlibrary_Vad_feed(JNIEnv * env, jobject object, jshortArray bytes, jint size) {
-    jshort *arrayElements = (*env)->GetShortArrayElements(env, bytes, 0);
-    resultVad = WebRtcVad_Process(internalHandle, 16000, arrayElements, size);
-    (*env)->ReleaseShortArrayElements(env, bytes, arrayElements, 0);
-    return resultVad;
-}
\ No newline at end of file
+JNIEXPORT jint JNICALL Java_com_mozilla_speechlibrary_Vad_nativeProcessFrames(JNIEnv * env, jclass clazz, jlong handle, jint sampleRate, jshortArray bytes, jint offset, jint frameLength, jint frames, jbooleanArray decisions) {
+    int16_t frame[MAX_FRAME_LENGTH];
+    jboolean block[DECISION_BLOCK];
+    if (frameLength <= 0 || frameLength > MAX_FRAME_LENGTH) return -1;
+
+    for (jint i = 0; i < frames; i++) {
+        (*env)->GetShortArrayRegion(env, bytes, offset + i * frameLength, frameLength, frame);
+        if ((*env)->ExceptionCheck(env)) return -1;
+        int result = WebRtcVad_Process((VadInst*) (intptr_t) handle, sampleRate, frame, frameLength);
+        if (result < 0) return result;
+        block[i % DECISION_BLOCK] = result > 0 ? JNI_TRUE : JNI_FALSE;
+        if (i % DECISION_BLOCK == DECISION_BLOCK - 1 || i == frames - 1) {
+            jint first = i - i % DECISION_BLOCK;
+            (*env)->SetBooleanArrayRegion(env, decisions, first, i - first + 1, block);
+            if ((*env)->ExceptionCheck(env)) return -1;
+        }
+    }
+    return frames;
+}
+
+JNIEXPORT jint JNICALL Java_com_mozilla_speechlibrary_Vad_nativeProcessBuffer(JNIEnv * env, jclass clazz, jlong handle, jint sampleRate, jobject buffer, jint byteOffset, jint frameLength, jint frames, jbooleanArray decisions) {
+    jboolean block[DECISION_BLOCK];
+    int8_t *address = (*env)->GetDirectBufferAddress(env, buffer);
+    if (address == NULL) return -1;
+    // The samples are read in place, they must be aligned
+    if (((intptr_t) (address + byteOffset)) % 2 != 0) return -1;
+    int16_t *samples = (int16_t*) (address + byteOffset);
+
+    for (jint i = 0; i < frames; i++) {
+        int result = WebRtcVad_Process((VadInst*) (intptr_t) handle, sampleRate, samples + (size_t) i * frameLength, frameLength);
+        if (result < 0) return result;
+        block[i % DECISION_BLOCK] = result > 0 ? JNI_TRUE : JNI_FALSE;
+        if (i % DECISION_BLOCK == DECISION_BLOCK - 1 || i == frames - 1) {
+            jint first = i - i % DECISION_BLOCK;
+            (*env)->SetBooleanArrayRegion(env, decisions, first, i - first + 1, block);
+            if ((*env)->ExceptionCheck(env)) return -1;
+        }
+    }
+    return frames;
+}
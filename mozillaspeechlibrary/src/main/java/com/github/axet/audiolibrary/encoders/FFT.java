@@ -0,0 +1,190 @@
+package com.github.axet.audiolibrary.encoders;
+
+/**
+ * Reusable radix-2 FFT working in place on float arrays. Twiddles, the bit reversal table and
+ * the window are computed once, so transforming a frame doesn't allocate.
+ *
+ * Instances keep scratch buffers and aren't thread safe.
+ */
+public class FFT {
+
+    // Lowest band edge used by bandEnergies(), below it there is little speech energy
+    private static final float MIN_BAND_HZ = 60;
+
+    private final int mSize;
+    private final float[] mCos;
+    private final float[] mSin;
+    private final int[] mReverse;
+    private final float[] mWindow;
+    private final float[] mRe;
+    private final float[] mIm;
+    private final float[] mPower;
+    private int[] mBandEdges;
+    private int mBandSampleRate;
+
+    /**
+     * @param size number of points, must be a power of two.
+     * @param window whether input samples are shaped with a Hann window.
+     */
+    public FFT(int size, boolean window) {
+        if (size < 2 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("FFT size must be a power of two: " + size);
+        }
+
+        mSize = size;
+        mCos = new float[size / 2];
+        mSin = new float[size / 2];
+        for (int i = 0; i < size / 2; i++) {
+            double angle = 2 * Math.PI * i / size;
+            mCos[i] = (float) Math.cos(angle);
+            mSin[i] = (float) Math.sin(angle);
+        }
+
+        int bits = Integer.numberOfTrailingZeros(size);
+        mReverse = new int[size];
+        for (int i = 0; i < size; i++) {
+            mReverse[i] = Integer.reverse(i) >>> (32 - bits);
+        }
+
+        if (window) {
+            mWindow = new float[size];
+            for (int i = 0; i < size; i++) {
+                mWindow[i] = (float) (0.5 - 0.5 * Math.cos(2 * Math.PI * i / (size - 1)));
+            }
+
+        } else {
+            mWindow = null;
+        }
+
+        mRe = new float[size];
+        mIm = new float[size];
+        mPower = new float[size / 2];
+    }
+
+    public static int nextPowerOfTwo(int n) {
+        n = Math.max(1, n);
+        int highest = Integer.highestOneBit(n);
+        return highest == n ? n : highest << 1;
+    }
+
+    public int getSize() {
+        return mSize;
+    }
+
+    /**
+     * Forward transform of {@code re} + i{@code im} in place, both at least {@link #getSize()} long.
+     */
+    public void transform(float[] re, float[] im) {
+        int n = mSize;
+        for (int i = 0; i < n; i++) {
+            int j = mReverse[i];
+            if (j > i) {
+                float t = re[i];
+                re[i] = re[j];
+                re[j] = t;
+                t = im[i];
+                im[i] = im[j];
+                im[j] = t;
+            }
+        }
+
+        for (int len = 2; len <= n; len <<= 1) {
+            int half = len >> 1;
+            int step = n / len;
+            for (int i = 0; i < n; i += len) {
+                for (int k = 0, w = 0; k < half; k++, w += step) {
+                    float wr = mCos[w];
+                    float wi = -mSin[w];
+                    int a = i + k;
+                    int b = a + half;
+                    float tr = wr * re[b] - wi * im[b];
+                    float ti = wr * im[b] + wi * re[b];
+                    re[b] = re[a] - tr;
+                    im[b] = im[a] - ti;
+                    re[a] += tr;
+                    im[a] += ti;
+                }
+            }
+        }
+    }
+
+    /**
+     * Single sided power of the first {@link #getSize()} / 2 bins, scaled like {@link Sound#fft}
+     * before its conversion to dB. Input past the FFT size is ignored, missing input is zero.
+     */
+    public void powerSpectrum(short[] buffer, int offset, int len, float[] power) {
+        int n = mSize;
+        int count = Math.min(len, n);
+        for (int i = 0; i < count; i++) {
+            float sample = buffer[offset + i] / (float) 0x7fff;
+            mRe[i] = mWindow != null ? sample * mWindow[i] : sample;
+        }
+        for (int i = count; i < n; i++) {
+            mRe[i] = 0;
+        }
+        for (int i = 0; i < n; i++) {
+            mIm[i] = 0;
+        }
+
+        transform(mRe, mIm);
+
+        float scale = 1f / ((float) n * n);
+        power[0] = (mRe[0] * mRe[0] + mIm[0] * mIm[0]) * scale;
+        for (int i = 1; i < n / 2; i++) {
+            power[i] = 2 * (mRe[i] * mRe[i] + mIm[i] * mIm[i]) * scale;
+        }
+    }
+
+    /**
+     * Mean of the per bin power in dB, the value {@link Sound#fft} callers get by averaging
+     * its result.
+     */
+    public double meanPowerDb(short[] buffer, int offset, int len) {
+        powerSpectrum(buffer, offset, len, mPower);
+
+        double sum = 0;
+        for (int i = 0; i < mPower.length; i++) {
+            sum += 10 * Math.log10(mPower[i]);
+        }
+        return sum / mPower.length;
+    }
+
+    /**
+     * Fills {@code bands} with the energy in dB of {@code bands.length} log spaced bands
+     * between {@link #MIN_BAND_HZ} and the Nyquist frequency.
+     */
+    public void bandEnergies(short[] buffer, int offset, int len, int sampleRate, float[] bands) {
+        if (mBandEdges == null || mBandEdges.length != bands.length + 1 || mBandSampleRate != sampleRate) {
+            mBandEdges = logBandEdges(bands.length, sampleRate);
+            mBandSampleRate = sampleRate;
+        }
+
+        powerSpectrum(buffer, offset, len, mPower);
+
+        for (int b = 0; b < bands.length; b++) {
+            float energy = 0;
+            for (int i = mBandEdges[b]; i < mBandEdges[b + 1]; i++) {
+                energy += mPower[i];
+            }
+            bands[b] = (float) (10 * Math.log10(Math.max(energy, 1e-12f)));
+        }
+    }
+
+    private int[] logBandEdges(int count, int sampleRate) {
+        int bins = mSize / 2;
+        float binHz = (float) sampleRate / mSize;
+        float nyquist = sampleRate / 2f;
+        float minHz = Math.min(MIN_BAND_HZ, nyquist / 2);
+
+        int[] edges = new int[count + 1];
+        edges[0] = Math.max(1, Math.round(minHz / binHz));
+        for (int b = 1; b <= count; b++) {
+            double hz = minHz * Math.pow(nyquist / minHz, (double) b / count);
+            // Every band gets at least one bin
+            edges[b] = Math.min(bins, Math.max(edges[b - 1] + 1, (int) Math.round(hz / binHz)));
+        }
+        edges[count] = bins;
+
+        return edges;
+    }
+}
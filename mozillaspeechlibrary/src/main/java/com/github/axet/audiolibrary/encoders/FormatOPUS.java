@@ -6,7 +6,6 @@ import com.github.axet.opusjni.Config;
 import com.github.axet.opusjni.Opus;
 import java.io.ByteArrayOutputStream;
 import java.nio.ByteBuffer;
-import java.nio.ShortBuffer;
 
 @TargetApi(21)
 public class FormatOPUS implements Encoder {
@@ -19,7 +18,8 @@ public class FormatOPUS implements Encoder {
     EncoderInfo info;
     Opus opus;
     long NumSamples;
-    ShortBuffer left;
+    short[] left;
+    int leftLen;
     int frameSize = 960; // default 20ms
     int hz;
     Resample resample;
@@ -98,15 +98,6 @@ public class FormatOPUS implements Encoder {
     }
 
     void encode2(short[] buf, int pos, int len) {
-        if (left != null) {
-            ShortBuffer ss = ShortBuffer.allocate(left.position() + len);
-            left.flip();
-            ss.put(left);
-            ss.put(buf, pos, len);
-            buf = ss.array();
-            pos = 0;
-            len = ss.position();
-        }
         if (frameSize == 0) {
             if (len < 240) {
                 frameSize = 120;
@@ -123,22 +114,35 @@ public class FormatOPUS implements Encoder {
             }
         }
         int frameSizeStereo = frameSize * info.channels;
-        int lenEncode = len / frameSizeStereo * frameSizeStereo;
-        int end = pos + lenEncode;
-        for (int p = pos; p < end; p += frameSizeStereo) {
-            byte[] bb = opus.encode(buf, p, frameSizeStereo);
-            encode(ByteBuffer.wrap(bb), frameSize);
-            NumSamples += frameSizeStereo / info.channels;
+        // Capture frames rarely line up with opus frames, carry the remainder in a reused buffer
+        if (left == null || left.length != frameSizeStereo) {
+            left = new short[frameSizeStereo];
+            leftLen = 0;
         }
-        int diff = len - lenEncode;
-        if (diff > 0) {
-            left = ShortBuffer.allocate(diff);
-            left.put(buf, end, diff);
-        } else {
-            left = null;
+        int end = pos + len;
+        while (pos < end) {
+            if (leftLen == 0 && end - pos >= frameSizeStereo) {
+                encodeFrame(buf, pos, frameSizeStereo);
+                pos += frameSizeStereo;
+                continue;
+            }
+            int n = Math.min(frameSizeStereo - leftLen, end - pos);
+            System.arraycopy(buf, pos, left, leftLen, n);
+            leftLen += n;
+            pos += n;
+            if (leftLen == frameSizeStereo) {
+                encodeFrame(left, 0, frameSizeStereo);
+                leftLen = 0;
+            }
         }
     }
 
+    void encodeFrame(short[] buf, int pos, int frameSizeStereo) {
+        byte[] bb = opus.encode(buf, pos, frameSizeStereo);
+        encode(ByteBuffer.wrap(bb), frameSize);
+        NumSamples += frameSizeStereo / info.channels;
+    }
+
     void resample() {
         ByteBuffer bb;
         while ((bb = resample.read()) != null) {
@@ -0,0 +1,133 @@
+package com.mozilla.speechlibrary;
+
+import android.content.Context;
+import android.os.Handler;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.mozilla.speechlibrary.stt.STTPartialResult;
+import com.mozilla.speechlibrary.stt.STTResult;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * Delivers recognition events to the registered callbacks on the delivery executor.
+ * Listeners can be added and removed from any thread, including from inside a callback.
+ */
+public class SpeechEventDispatcher implements SpeechResultCallback {
+
+    /**
+     * Calls the listeners on the thread that raised the event, the recognition thread.
+     */
+    public static final Executor INLINE = Runnable::run;
+
+    private final CopyOnWriteArrayList<SpeechResultCallback> mListeners = new CopyOnWriteArrayList<>();
+    @NonNull
+    private final Executor mExecutor;
+
+    public SpeechEventDispatcher(@NonNull Executor executor) {
+        mExecutor = executor;
+    }
+
+    /**
+     * Posts the events to the application main looper.
+     */
+    @NonNull
+    public static Executor mainThread(@NonNull Context context) {
+        Handler handler = new Handler(context.getMainLooper());
+        return handler::post;
+    }
+
+    @NonNull
+    public Executor getExecutor() {
+        return mExecutor;
+    }
+
+    public void addListener(@NonNull SpeechResultCallback listener) {
+        mListeners.addIfAbsent(listener);
+    }
+
+    public void removeListener(@NonNull SpeechResultCallback listener) {
+        mListeners.remove(listener);
+    }
+
+    public void clearListeners() {
+        mListeners.clear();
+    }
+
+    private void dispatch(@NonNull Runnable event) {
+        if (mExecutor == INLINE) {
+            event.run();
+
+        } else {
+            mExecutor.execute(event);
+        }
+    }
+
+    // SpeechResultCallback
+
+    @Override
+    public void onStartListen() {
+        dispatch(() -> {
+            for (SpeechResultCallback listener : mListeners) {
+                listener.onStartListen();
+            }
+        });
+    }
+
+    @Override
+    public void onMicActivity(double fftsum) {
+        dispatch(() -> {
+            for (SpeechResultCallback listener : mListeners) {
+                listener.onMicActivity(fftsum);
+            }
+        });
+    }
+
+    @Override
+    public void onDecoding() {
+        dispatch(() -> {
+            for (SpeechResultCallback listener : mListeners) {
+                listener.onDecoding();
+            }
+        });
+    }
+
+    @Override
+    public void onSTTResult(@Nullable STTResult result) {
+        dispatch(() -> {
+            for (SpeechResultCallback listener : mListeners) {
+                listener.onSTTResult(result);
+            }
+        });
+    }
+
+    @Override
+    public void onPartialResult(@NonNull STTPartialResult partial) {
+        dispatch(() -> {
+            for (SpeechResultCallback listener : mListeners) {
+                listener.onPartialResult(partial);
+            }
+        });
+    }
+
+    @Override
+    public void onNoVoice() {
+        dispatch(() -> {
+            for (SpeechResultCallback listener : mListeners) {
+                listener.onNoVoice();
+            }
+        });
+    }
+
+    @Override
+    public void onError(@ErrorType int errorType, @Nullable String error) {
+        dispatch(() -> {
+            for (SpeechResultCallback listener : mListeners) {
+                listener.onError(errorType, error);
+            }
+        });
+    }
+}
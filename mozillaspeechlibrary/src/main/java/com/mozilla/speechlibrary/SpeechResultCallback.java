@@ -1,8 +1,10 @@
 package com.mozilla.speechlibrary;
 
 import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.mozilla.speechlibrary.stt.STTPartialResult;
 import com.mozilla.speechlibrary.stt.STTResult;
 
 import java.lang.annotation.Retention;
@@ -17,9 +19,13 @@ public interface SpeechResultCallback {
     int MODEL_NOT_FOUND = 1;
 
     void onStartListen();
+    // Average FFT bin power in dB of the latest frame, or its RMS level in dBFS when
+    // SpeechServiceSettings.Builder#withRmsMicActivity is set
     void onMicActivity(double fftsum);
     void onDecoding();
     void onSTTResult(@Nullable STTResult result);
+    // Hypothesis while the utterance is decoded, only sent by local recognition
+    default void onPartialResult(@NonNull STTPartialResult partial) {}
     void onNoVoice();
     void onError(@ErrorType int errorType, @Nullable String error);
 }
@@ -2,41 +2,194 @@ package com.mozilla.speechlibrary;
 
 import android.content.Context;
 import android.os.Process;
+import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.mozilla.speechlibrary.audio.AudioSource;
+import com.mozilla.speechlibrary.audio.PreRollAudioSource;
+import com.mozilla.speechlibrary.endpoint.EndpointReason;
+import com.mozilla.speechlibrary.engine.DeepSpeechEngine;
+import com.mozilla.speechlibrary.engine.EngineBenchmark;
+import com.mozilla.speechlibrary.engine.EngineRegistry;
+import com.mozilla.speechlibrary.engine.EngineScore;
+import com.mozilla.speechlibrary.engine.EngineScores;
+import com.mozilla.speechlibrary.engine.STTEngine;
+import com.mozilla.speechlibrary.model.ModelPreparer;
+import com.mozilla.speechlibrary.model.PrepareCallback;
+import com.mozilla.speechlibrary.model.PrepareState;
+import com.mozilla.speechlibrary.model.UsageHistory;
 import com.mozilla.speechlibrary.recognition.LocalSpeechRecognition;
 import com.mozilla.speechlibrary.recognition.NetworkSpeechRecognition;
 import com.mozilla.speechlibrary.recognition.SpeechRecognition;
 
 import org.mozilla.geckoview.GeckoWebExecutor;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 
 public class SpeechService {
 
+    private static final String TAG = SpeechService.class.getSimpleName();
+
+    private static final int SAMPLE_RATE = 16000;
+    private static final int CHANNELS = 1;
+    // Each model takes hundreds of MB with its scorer, only the most likely one is prefetched
+    private static final int PREFETCH_MODELS = 1;
+    // A session notices the stop within a frame, unless its source blocks
+    private static final long STOP_TIMEOUT_MS = 2000;
+
     private Context mContext;
     private SpeechRecognition mSpeechRecognition;
+    private PreRollAudioSource mArmedSource;
+    private Executor mDeliveryExecutor;
+    private ModelPreparer mPreparer;
+    private UsageHistory mUsageHistory;
+    private EngineScores mEngineScores;
+    private EngineBenchmark mEngineBenchmark;
 
     public SpeechService(@NonNull Context context) {
+        this(context, false);
+    }
+
+    /**
+     * @param prefetch loads the models used the most in the background, nothing is loaded
+     * before {@link #prepare} or the first session otherwise.
+     */
+    public SpeechService(@NonNull Context context, boolean prefetch) {
         mContext = context;
+        mDeliveryExecutor = SpeechEventDispatcher.mainThread(context);
+        mPreparer = new ModelPreparer(mDeliveryExecutor);
+        mUsageHistory = new UsageHistory(context);
+        mEngineScores = new EngineScores(context);
+        mEngineBenchmark = new EngineBenchmark(context, EngineRegistry.getInstance(), mEngineScores);
+
+        if (prefetch) {
+            for (String modelPath : mUsageHistory.getMostUsed(PREFETCH_MODELS)) {
+                mPreparer.prepare(modelPath);
+            }
+        }
+    }
+
+    /**
+     * Sets where {@link SpeechResultCallback} methods are called for the next sessions: the main
+     * looper (the default, {@link SpeechEventDispatcher#mainThread}), any executor, or
+     * {@link SpeechEventDispatcher#INLINE} to be called straight from the recognition thread.
+     */
+    synchronized
+    public void setDeliveryExecutor(@NonNull Executor executor) {
+        mDeliveryExecutor = executor;
+        mPreparer.setDeliveryExecutor(executor);
+    }
+
+    /**
+     * Loads the model the settings use and runs a warm-up decode in the background so the
+     * next session starts right away. Network settings don't need any preparation.
+     */
+    public void prepare(@NonNull SpeechServiceSettings settings) {
+        if (settings.useUseDeepSpeech() && settings.getModelPath() != null) {
+            mPreparer.prepare(settings.getModelPath());
+        }
+    }
+
+    /**
+     * Measures in the background the offline engines available for the settings language that
+     * haven't been measured yet, for {@link #selectEngine}. Nothing is measured unless this is
+     * called.
+     *
+     * @param audio 16kHz mono recording of speech in the settings language.
+     * @param expected transcription of the audio, to measure the word error rate.
+     */
+    public void benchmarkEngines(@NonNull SpeechServiceSettings settings,
+                                 @NonNull short[] audio,
+                                 @Nullable String expected) {
+        mEngineBenchmark.runMissing(settings, audio, expected);
+    }
+
+    /**
+     * The offline engine the next local session with these settings will run on.
+     */
+    @NonNull
+    public STTEngine selectEngine(@NonNull SpeechServiceSettings settings) {
+        STTEngine engine = EngineRegistry.getInstance().select(settings,
+                mEngineScores.getAll(settings.getLanguage()));
+        return engine != null ? engine : new DeepSpeechEngine();
+    }
+
+    /**
+     * Benchmark results of the engines measured for the language.
+     */
+    @NonNull
+    public List<EngineScore> getEngineScores(@NonNull String language) {
+        return mEngineScores.getAll(language);
+    }
+
+    /**
+     * Whether a session with these settings can start without loading a model, the UI can keep
+     * the microphone button disabled until it's {@link PrepareState#READY}.
+     */
+    @NonNull
+    public PrepareState getPrepareState(@NonNull SpeechServiceSettings settings) {
+        if (!settings.useUseDeepSpeech()) {
+            return PrepareState.READY;
+        }
+        if (settings.getModelPath() == null) {
+            return PrepareState.FAILED;
+        }
+        return mPreparer.getState(settings.getModelPath());
+    }
+
+    /**
+     * The callback is called on the delivery executor.
+     */
+    public void addPrepareCallback(@NonNull PrepareCallback callback) {
+        mPreparer.addCallback(callback);
+    }
+
+    public void removePrepareCallback(@NonNull PrepareCallback callback) {
+        mPreparer.removeCallback(callback);
     }
 
     synchronized
     public void start(@NonNull SpeechServiceSettings settings, @NonNull SpeechResultCallback delegate) {
-        start(settings, null, delegate);
+        start(settings, null, null, delegate);
     }
 
     synchronized
     public void start(@NonNull SpeechServiceSettings settings, @Nullable GeckoWebExecutor executor, @NonNull SpeechResultCallback delegate) {
-        if (mSpeechRecognition != null && mSpeechRecognition.isRunning()) {
-            mSpeechRecognition.stop();
+        start(settings, executor, null, delegate);
+    }
+
+    /**
+     * Runs recognition over the given source instead of the microphone, the service takes
+     * ownership of the source and closes it once the session ends.
+     */
+    synchronized
+    public void start(@NonNull SpeechServiceSettings settings, @NonNull AudioSource source, @NonNull SpeechResultCallback delegate) {
+        start(settings, null, source, delegate);
+    }
+
+    synchronized
+    public void start(@NonNull SpeechServiceSettings settings,
+                      @Nullable GeckoWebExecutor executor,
+                      @Nullable AudioSource source,
+                      @NonNull SpeechResultCallback delegate) {
+        // The previous session may still be reading the armed source, the new one waits for it
+        SpeechRecognition previous = mSpeechRecognition;
+        if (previous != null && previous.isRunning()) {
+            previous.stop();
         }
 
         if (settings.useUseDeepSpeech()) {
+            if (settings.getModelPath() != null) {
+                mUsageHistory.recordUsage(settings.getModelPath());
+            }
             mSpeechRecognition = new LocalSpeechRecognition(
-                    mContext);
+                    mContext,
+                    selectEngine(settings));
 
         } else {
             mSpeechRecognition = new NetworkSpeechRecognition(
@@ -45,7 +198,25 @@ public class SpeechService {
             );
         }
 
-        execute(() -> mSpeechRecognition.start(settings, delegate));
+        mSpeechRecognition.setDeliveryExecutor(mDeliveryExecutor);
+
+        if (source == null) {
+            source = mArmedSource;
+        }
+
+        SpeechRecognition recognition = mSpeechRecognition;
+        AudioSource sessionSource = source;
+        execute(() -> {
+            if (previous != null && !previous.awaitFinished(STOP_TIMEOUT_MS)) {
+                Log.w(TAG, "Previous session still running");
+            }
+            if (sessionSource != null) {
+                recognition.start(settings, sessionSource, delegate);
+
+            } else {
+                recognition.start(settings, delegate);
+            }
+        });
     }
 
     public void stop() {
@@ -54,6 +225,52 @@ public class SpeechService {
         }
     }
 
+    /**
+     * Opens the microphone ahead of time and keeps the last {@link SpeechServiceSettings#getPreRollMs()}
+     * of audio, the next microphone session starts with it. The microphone stays open between
+     * sessions until {@link #disarm()} is called.
+     *
+     * @return false if the microphone couldn't be opened.
+     */
+    synchronized
+    public boolean arm(@NonNull SpeechServiceSettings settings) {
+        if (mArmedSource != null) {
+            return true;
+        }
+
+        PreRollAudioSource source = new PreRollAudioSource(SAMPLE_RATE, CHANNELS, settings.getPreRollMs());
+        try {
+            source.arm();
+
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+        mArmedSource = source;
+
+        return true;
+    }
+
+    synchronized
+    public void disarm() {
+        if (mArmedSource != null) {
+            mArmedSource.disarm();
+            mArmedSource = null;
+        }
+    }
+
+    public boolean isArmed() {
+        return mArmedSource != null;
+    }
+
+    @NonNull
+    public EndpointReason getLastEndpointReason() {
+        if (mSpeechRecognition != null) {
+            return mSpeechRecognition.getEndpointReason();
+        }
+        return EndpointReason.NONE;
+    }
+
     private void execute(@NonNull final Runnable task) {
         Executors.newSingleThreadExecutor().submit(() -> {
             Process.setThreadPriority(Process.THREAD_PRIORITY_URGENT_AUDIO);
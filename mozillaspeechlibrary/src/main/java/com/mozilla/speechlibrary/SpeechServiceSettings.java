@@ -3,7 +3,16 @@ package com.mozilla.speechlibrary;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.mozilla.speechlibrary.audio.ClipFormat;
+import com.mozilla.speechlibrary.audio.OverflowPolicy;
+import com.mozilla.speechlibrary.vad.VadType;
+
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class SpeechServiceSettings implements Serializable {
 
@@ -13,6 +22,42 @@ public class SpeechServiceSettings implements Serializable {
     private String mProductTag;
     private boolean mUseDeepSpeech;
     private String mModelPath;
+    private boolean mUseAdaptiveEndpointing;
+    private int mMinVoiceMs;
+    private int mMinSilenceMs;
+    private int mMaxSilenceMs;
+    private int mMaxDurationMs;
+    private boolean mUseContinuousMode;
+    private int mPreRollMs;
+    private int mMicActivityRate;
+    private boolean mUseRmsMicActivity;
+    private float mGainDb;
+    private boolean mUseAutomaticGainControl;
+    private int mHighPassHz;
+    private boolean mUseClipGuard;
+    private VadType mVadType;
+    private int mVadMode;
+    private int mQueueCapacityMs;
+    private OverflowPolicy mOverflowPolicy;
+    private int mMinFeedChunkMs;
+    private int mMaxFeedChunkMs;
+    private int mPartialIntervalMs;
+    private float mPartialCpuBudget;
+    private boolean mUseEarlyEndpointing;
+    private int mEarlyMinSilenceMs;
+    private int mStabilityWindowMs;
+    private ArrayList<String> mCommandPhrases;
+    private boolean mUseSpeculativeFinalization;
+    private int mSpeculationOnsetMs;
+    private float mSpeculationCpuBudget;
+    private float mClipSessionRate;
+    private ClipFormat mClipFormat;
+    private int mMaxClips;
+    private int mMaxClipMs;
+    private boolean mUseScorer;
+    private String mScorerPath;
+    private int mBeamWidth;
+    private HashMap<String, Float> mHotWords;
 
     public SpeechServiceSettings(@NonNull Builder builder) {
         mUseStoreSamples = builder.storeSamples;
@@ -21,6 +66,42 @@ public class SpeechServiceSettings implements Serializable {
         mProductTag = builder.productTag;
         mUseDeepSpeech = builder.useDeepSpeech;
         mModelPath = builder.modelPath;
+        mUseAdaptiveEndpointing = builder.adaptiveEndpointing;
+        mMinVoiceMs = builder.minVoiceMs;
+        mMinSilenceMs = builder.minSilenceMs;
+        mMaxSilenceMs = builder.maxSilenceMs;
+        mMaxDurationMs = builder.maxDurationMs;
+        mUseContinuousMode = builder.continuousMode;
+        mPreRollMs = builder.preRollMs;
+        mMicActivityRate = builder.micActivityRate;
+        mUseRmsMicActivity = builder.rmsMicActivity;
+        mGainDb = builder.gainDb;
+        mUseAutomaticGainControl = builder.automaticGainControl;
+        mHighPassHz = builder.highPassHz;
+        mUseClipGuard = builder.clipGuard;
+        mVadType = builder.vadType;
+        mVadMode = builder.vadMode;
+        mQueueCapacityMs = builder.queueCapacityMs;
+        mOverflowPolicy = builder.overflowPolicy;
+        mMinFeedChunkMs = builder.minFeedChunkMs;
+        mMaxFeedChunkMs = builder.maxFeedChunkMs;
+        mPartialIntervalMs = builder.partialIntervalMs;
+        mPartialCpuBudget = builder.partialCpuBudget;
+        mUseEarlyEndpointing = builder.earlyEndpointing;
+        mEarlyMinSilenceMs = builder.earlyMinSilenceMs;
+        mStabilityWindowMs = builder.stabilityWindowMs;
+        mCommandPhrases = new ArrayList<>(builder.commandPhrases);
+        mUseSpeculativeFinalization = builder.speculativeFinalization;
+        mSpeculationOnsetMs = builder.speculationOnsetMs;
+        mSpeculationCpuBudget = builder.speculationCpuBudget;
+        mClipSessionRate = builder.clipSessionRate;
+        mClipFormat = builder.clipFormat;
+        mMaxClips = builder.maxClips;
+        mMaxClipMs = builder.maxClipMs;
+        mUseScorer = builder.useScorer;
+        mScorerPath = builder.scorerPath;
+        mBeamWidth = builder.beamWidth;
+        mHotWords = new HashMap<>(builder.hotWords);
     }
 
     public boolean useStoreSamples() {
@@ -50,6 +131,157 @@ public class SpeechServiceSettings implements Serializable {
         return mModelPath;
     }
 
+    public boolean useAdaptiveEndpointing() {
+        return mUseAdaptiveEndpointing;
+    }
+
+    public int getMinVoiceMs() {
+        return mMinVoiceMs;
+    }
+
+    public int getMinSilenceMs() {
+        return mMinSilenceMs;
+    }
+
+    public int getMaxSilenceMs() {
+        return mMaxSilenceMs;
+    }
+
+    public int getMaxDurationMs() {
+        return mMaxDurationMs;
+    }
+
+    public boolean useContinuousMode() {
+        return mUseContinuousMode;
+    }
+
+    public int getPreRollMs() {
+        return mPreRollMs;
+    }
+
+    public int getMicActivityRate() {
+        return mMicActivityRate;
+    }
+
+    public boolean useRmsMicActivity() {
+        return mUseRmsMicActivity;
+    }
+
+    public float getGainDb() {
+        return mGainDb;
+    }
+
+    public boolean useAutomaticGainControl() {
+        return mUseAutomaticGainControl;
+    }
+
+    public int getHighPassHz() {
+        return mHighPassHz;
+    }
+
+    public boolean useClipGuard() {
+        return mUseClipGuard;
+    }
+
+    @NonNull
+    public VadType getVadType() {
+        return mVadType;
+    }
+
+    @Vad.Mode
+    public int getVadMode() {
+        return mVadMode;
+    }
+
+    public int getQueueCapacityMs() {
+        return mQueueCapacityMs;
+    }
+
+    @NonNull
+    public OverflowPolicy getOverflowPolicy() {
+        return mOverflowPolicy;
+    }
+
+    public int getMinFeedChunkMs() {
+        return mMinFeedChunkMs;
+    }
+
+    public int getMaxFeedChunkMs() {
+        return mMaxFeedChunkMs;
+    }
+
+    public int getPartialIntervalMs() {
+        return mPartialIntervalMs;
+    }
+
+    public float getPartialCpuBudget() {
+        return mPartialCpuBudget;
+    }
+
+    public boolean useEarlyEndpointing() {
+        return mUseEarlyEndpointing;
+    }
+
+    public int getEarlyMinSilenceMs() {
+        return mEarlyMinSilenceMs;
+    }
+
+    public int getStabilityWindowMs() {
+        return mStabilityWindowMs;
+    }
+
+    @NonNull
+    public List<String> getCommandPhrases() {
+        return mCommandPhrases;
+    }
+
+    public boolean useSpeculativeFinalization() {
+        return mUseSpeculativeFinalization;
+    }
+
+    public int getSpeculationOnsetMs() {
+        return mSpeculationOnsetMs;
+    }
+
+    public float getSpeculationCpuBudget() {
+        return mSpeculationCpuBudget;
+    }
+
+    public float getClipSessionRate() {
+        return mClipSessionRate;
+    }
+
+    @NonNull
+    public ClipFormat getClipFormat() {
+        return mClipFormat;
+    }
+
+    public int getMaxClips() {
+        return mMaxClips;
+    }
+
+    public int getMaxClipMs() {
+        return mMaxClipMs;
+    }
+
+    public boolean useScorer() {
+        return mUseScorer;
+    }
+
+    @Nullable
+    public String getScorerPath() {
+        return mScorerPath;
+    }
+
+    public int getBeamWidth() {
+        return mBeamWidth;
+    }
+
+    @NonNull
+    public Map<String, Float> getHotWords() {
+        return mHotWords;
+    }
+
     public static class Builder {
 
         private boolean storeSamples;
@@ -58,6 +290,42 @@ public class SpeechServiceSettings implements Serializable {
         private String productTag;
         private boolean useDeepSpeech;
         private String modelPath;
+        private boolean adaptiveEndpointing;
+        private int minVoiceMs;
+        private int minSilenceMs;
+        private int maxSilenceMs;
+        private int maxDurationMs;
+        private boolean continuousMode;
+        private int preRollMs;
+        private int micActivityRate;
+        private boolean rmsMicActivity;
+        private float gainDb;
+        private boolean automaticGainControl;
+        private int highPassHz;
+        private boolean clipGuard;
+        private VadType vadType;
+        private int vadMode;
+        private int queueCapacityMs;
+        private OverflowPolicy overflowPolicy;
+        private int minFeedChunkMs;
+        private int maxFeedChunkMs;
+        private int partialIntervalMs;
+        private float partialCpuBudget;
+        private boolean earlyEndpointing;
+        private int earlyMinSilenceMs;
+        private int stabilityWindowMs;
+        private ArrayList<String> commandPhrases;
+        private boolean speculativeFinalization;
+        private int speculationOnsetMs;
+        private float speculationCpuBudget;
+        private float clipSessionRate;
+        private ClipFormat clipFormat;
+        private int maxClips;
+        private int maxClipMs;
+        private boolean useScorer;
+        private String scorerPath;
+        private int beamWidth;
+        private HashMap<String, Float> hotWords;
 
         public Builder() {
             storeSamples = false;
@@ -66,6 +334,42 @@ public class SpeechServiceSettings implements Serializable {
             productTag = "moz-android-speech-lib";
             useDeepSpeech = false;
             modelPath = null;
+            adaptiveEndpointing = false;
+            minVoiceMs = 250;
+            minSilenceMs = 600;
+            maxSilenceMs = 1500;
+            maxDurationMs = 10000;
+            continuousMode = false;
+            preRollMs = 300;
+            micActivityRate = 20;
+            rmsMicActivity = false;
+            gainDb = 0;
+            automaticGainControl = false;
+            highPassHz = 0;
+            clipGuard = false;
+            vadType = VadType.WEBRTC;
+            vadMode = Vad.MODE_VERY_AGGRESSIVE;
+            queueCapacityMs = 10000;
+            overflowPolicy = OverflowPolicy.BLOCK;
+            minFeedChunkMs = 0;
+            maxFeedChunkMs = 0;
+            partialIntervalMs = 0;
+            partialCpuBudget = 0.2f;
+            earlyEndpointing = false;
+            earlyMinSilenceMs = 300;
+            stabilityWindowMs = 500;
+            commandPhrases = new ArrayList<>();
+            speculativeFinalization = false;
+            speculationOnsetMs = 200;
+            speculationCpuBudget = 0.5f;
+            clipSessionRate = 0;
+            clipFormat = ClipFormat.WAV;
+            maxClips = 10;
+            maxClipMs = 60000;
+            useScorer = true;
+            scorerPath = null;
+            beamWidth = 0;
+            hotWords = new HashMap<>();
         }
 
         public Builder withStoreSamples(boolean storeSamples) {
@@ -98,6 +402,222 @@ public class SpeechServiceSettings implements Serializable {
             return this;
         }
 
+        /**
+         * Adapts the trailing silence needed to end an utterance to the room noise, between
+         * the {@link #withSilenceHangover(int, int)} bounds. When disabled, the default, the
+         * maximum is used.
+         */
+        public Builder withAdaptiveEndpointing(boolean adaptiveEndpointing) {
+            this.adaptiveEndpointing = adaptiveEndpointing;
+            return this;
+        }
+
+        public Builder withSilenceHangover(int minSilenceMs, int maxSilenceMs) {
+            this.minSilenceMs = Math.max(0, Math.min(minSilenceMs, maxSilenceMs));
+            this.maxSilenceMs = Math.max(0, maxSilenceMs);
+            return this;
+        }
+
+        public Builder withMinVoiceDuration(int minVoiceMs) {
+            this.minVoiceMs = Math.max(0, minVoiceMs);
+            return this;
+        }
+
+        public Builder withMaxDuration(int maxDurationMs) {
+            this.maxDurationMs = Math.max(0, maxDurationMs);
+            return this;
+        }
+
+        /**
+         * Keeps listening after each result, every utterance found by the endpointer is
+         * reported separately until the service is stopped. The max duration then applies
+         * to each utterance.
+         */
+        public Builder withContinuousMode(boolean continuousMode) {
+            this.continuousMode = continuousMode;
+            return this;
+        }
+
+        /**
+         * Audio kept from before the voice started, or before the session started when the
+         * service is armed, and prepended to what the recognizer gets.
+         */
+        public Builder withPreRoll(int preRollMs) {
+            this.preRollMs = Math.max(0, preRollMs);
+            return this;
+        }
+
+        /**
+         * How many times per second {@link SpeechResultCallback#onMicActivity(double)} is called.
+         */
+        public Builder withMicActivityRate(int micActivityRate) {
+            this.micActivityRate = Math.max(1, micActivityRate);
+            return this;
+        }
+
+        /**
+         * Reports the RMS level of the frame in dBFS to
+         * {@link SpeechResultCallback#onMicActivity(double)} instead of the average FFT bin
+         * power, which saves running an FFT for every reading. Defaults to false.
+         */
+        public Builder withRmsMicActivity(boolean rmsMicActivity) {
+            this.rmsMicActivity = rmsMicActivity;
+            return this;
+        }
+
+        /**
+         * Gain applied to the captured audio, or the most the AGC may apply when
+         * {@link #withAutomaticGainControl(boolean)} is enabled. 0, the default, disables it.
+         */
+        public Builder withGain(float gainDb) {
+            this.gainDb = gainDb;
+            return this;
+        }
+
+        public Builder withAutomaticGainControl(boolean automaticGainControl) {
+            this.automaticGainControl = automaticGainControl;
+            return this;
+        }
+
+        /**
+         * Cutoff of the high-pass filter that removes DC offset and rumble, 0, the default,
+         * disables it.
+         */
+        public Builder withHighPassFilter(int highPassHz) {
+            this.highPassHz = Math.max(0, highPassHz);
+            return this;
+        }
+
+        /**
+         * Limits the peaks after the gain so the audio isn't clipped, off by default.
+         */
+        public Builder withClipGuard(boolean clipGuard) {
+            this.clipGuard = clipGuard;
+            return this;
+        }
+
+        public Builder withVad(@NonNull VadType vadType) {
+            this.vadType = vadType;
+            return this;
+        }
+
+        /**
+         * Aggressiveness of the WebRTC detector, higher modes reject more noise but may miss
+         * quiet speech.
+         */
+        public Builder withVadMode(@Vad.Mode int vadMode) {
+            this.vadMode = Math.max(Vad.MODE_QUALITY, Math.min(Vad.MODE_VERY_AGGRESSIVE, vadMode));
+            return this;
+        }
+
+        /**
+         * Audio the local decoder may fall behind the capture by, and what happens past it.
+         * Blocking never loses audio from file sources, the microphone drops it if blocked
+         * for too long.
+         */
+        public Builder withHandOffQueue(int capacityMs, @NonNull OverflowPolicy overflowPolicy) {
+            this.queueCapacityMs = Math.max(100, capacityMs);
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        /**
+         * Size of the chunks the local decoder is fed, it moves between the bounds with how far
+         * the decoder is behind. The chunk is flushed at the end of every utterance so it doesn't
+         * delay the result. A maximum of 0, the default, feeds every frame as it comes.
+         */
+        public Builder withFeedChunk(int minChunkMs, int maxChunkMs) {
+            this.maxFeedChunkMs = Math.max(0, maxChunkMs);
+            this.minFeedChunkMs = Math.max(0, Math.min(minChunkMs, this.maxFeedChunkMs));
+            return this;
+        }
+
+        /**
+         * How often local recognition reports {@link SpeechResultCallback#onPartialResult}, in
+         * audio time, 0, the default, disables them. Partials are skipped while they took more
+         * than {@code cpuBudget} of the audio duration to decode.
+         */
+        public Builder withPartialResults(int intervalMs, float cpuBudget) {
+            this.partialIntervalMs = Math.max(0, intervalMs);
+            this.partialCpuBudget = Math.max(0, cpuBudget);
+            return this;
+        }
+
+        /**
+         * Ends the utterance after {@code minSilenceMs} of silence instead of the full hangover
+         * when the partial transcript, decoded past the start of the silence, didn't change for
+         * {@code stabilityWindowMs}. Only local recognition with partial results supports it,
+         * the stability is checked at the partial interval.
+         */
+        public Builder withEarlyEndpointing(boolean enabled, int minSilenceMs, int stabilityWindowMs) {
+            this.earlyEndpointing = enabled;
+            this.earlyMinSilenceMs = Math.max(0, minSilenceMs);
+            this.stabilityWindowMs = Math.max(0, stabilityWindowMs);
+            return this;
+        }
+
+        /**
+         * Transcripts that end the utterance as soon as early endpointing sees them after a
+         * short silence, without waiting for the stability window. Case is ignored.
+         */
+        public Builder withCommandPhrases(@NonNull String... phrases) {
+            this.commandPhrases = new ArrayList<>(Arrays.asList(phrases));
+            return this;
+        }
+
+        /**
+         * Finishes a shadow copy of the utterance once {@code onsetMs} of trailing silence is
+         * heard, so the result is ready when the endpoint confirms it. The copy is discarded if
+         * the voice resumes. Every speculation decodes the utterance again, they are skipped
+         * while they took more than {@code cpuBudget} of the audio duration. Local recognition only.
+         */
+        public Builder withSpeculativeFinalization(boolean enabled, int onsetMs, float cpuBudget) {
+            this.speculativeFinalization = enabled;
+            this.speculationOnsetMs = Math.max(0, onsetMs);
+            this.speculationCpuBudget = Math.max(0, cpuBudget);
+            return this;
+        }
+
+        /**
+         * Records the audio the local decoder gets for a random {@code sessionRate} of the
+         * sessions, in the model folder. A {@code .keepClips} file in the model folder records
+         * every session. The oldest clips are deleted past {@code maxClips}.
+         */
+        public Builder withClipRecording(float sessionRate, @NonNull ClipFormat format, int maxClips, int maxClipMs) {
+            this.clipSessionRate = Math.max(0, Math.min(1, sessionRate));
+            this.clipFormat = format;
+            this.maxClips = Math.max(1, maxClips);
+            this.maxClipMs = Math.max(0, maxClipMs);
+            return this;
+        }
+
+        /**
+         * External scorer of local recognition, null uses the one of the model folder. A small
+         * scorer built for a command grammar makes the beam search much faster. Switching
+         * scorers between sessions doesn't reload the acoustic model.
+         */
+        public Builder withScorer(boolean useScorer, @Nullable String scorerPath) {
+            this.useScorer = useScorer;
+            this.scorerPath = scorerPath;
+            return this;
+        }
+
+        /**
+         * Beam width of local recognition, 0 uses the model default.
+         */
+        public Builder withBeamWidth(int beamWidth) {
+            this.beamWidth = Math.max(0, beamWidth);
+            return this;
+        }
+
+        /**
+         * Boosts a word in local recognition, negative boosts make it less likely. Needs a scorer.
+         */
+        public Builder withHotWord(@NonNull String word, float boost) {
+            this.hotWords.put(word, boost);
+            return this;
+        }
+
         public SpeechServiceSettings build(){
             return new SpeechServiceSettings(this);
         }
@@ -6,5 +6,13 @@ public enum SpeechState {
     STT_RESULT,
     START_LISTEN,
     NO_VOICE,
-    ERROR
+    ERROR,
+    PARTIAL_RESULT;
+
+    // values() returns a new copy on every call
+    private static final SpeechState[] VALUES = values();
+
+    public static SpeechState fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
 }
@@ -1,13 +1,167 @@
 package com.mozilla.speechlibrary;
 
-public class Vad {
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * WebRTC voice activity detector. Every object owns its native instance, so several can run
+ * at the same time, the instance is freed by {@link #stop()}.
+ */
+public class Vad implements Closeable {
 
     static {
         System.loadLibrary("webrtc_jni");
     }
 
-    public native int start();
-    public native int feed(short[] x, int n);
-    protected native int isSilence();
-    public native int stop();
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef(value = { MODE_QUALITY, MODE_LOW_BITRATE, MODE_AGGRESSIVE, MODE_VERY_AGGRESSIVE})
+    public @interface Mode {}
+    public static final int MODE_QUALITY = 0;
+    public static final int MODE_LOW_BITRATE = 1;
+    public static final int MODE_AGGRESSIVE = 2;
+    public static final int MODE_VERY_AGGRESSIVE = 3;
+
+    private final int mMode;
+    private final int mSampleRate;
+    private long mHandle;
+    private int mLastResult;
+
+    public Vad() {
+        this(MODE_VERY_AGGRESSIVE, 16000);
+    }
+
+    /**
+     * @param sampleRate 8000, 16000, 32000 or 48000.
+     */
+    public Vad(@Mode int mode, int sampleRate) {
+        if (mode < MODE_QUALITY || mode > MODE_VERY_AGGRESSIVE) {
+            throw new IllegalArgumentException("Unsupported VAD mode: " + mode);
+        }
+        if (sampleRate != 8000 && sampleRate != 16000 && sampleRate != 32000 && sampleRate != 48000) {
+            throw new IllegalArgumentException("Unsupported VAD sample rate: " + sampleRate);
+        }
+        mMode = mode;
+        mSampleRate = sampleRate;
+    }
+
+    public int getMode() {
+        return mMode;
+    }
+
+    public int getSampleRate() {
+        return mSampleRate;
+    }
+
+    /**
+     * Creates the native instance, does nothing if it already exists.
+     *
+     * @return 0 or a negative value if it couldn't be created.
+     */
+    public synchronized int start() {
+        if (mHandle == 0) {
+            mHandle = nativeCreate(mMode);
+        }
+        return mHandle != 0 ? 0 : -1;
+    }
+
+    /**
+     * @return 1 for voice, 0 for silence or a negative value if the frame isn't 10, 20 or 30ms
+     * or the detector isn't started.
+     */
+    public synchronized int feed(@NonNull short[] x, int n) {
+        if (n < 0 || n > x.length) {
+            throw new IllegalArgumentException("Frame of " + n + " samples outside of a " + x.length + " buffer");
+        }
+        if (mHandle == 0) {
+            return -1;
+        }
+        mLastResult = nativeProcess(mHandle, mSampleRate, x, n);
+        return mLastResult;
+    }
+
+    /**
+     * Runs {@code frames} consecutive frames of {@code frameLength} samples starting at
+     * {@code offset} in a single native call. Frames are copied out one at a time, the
+     * array is never pinned while the detector runs.
+     *
+     * @return the number of frames processed or a negative value on error, a frame length
+     * that isn't 10, 20 or 30ms is an error.
+     */
+    public synchronized int feed(@NonNull short[] x, int offset, int frameLength, int frames,
+                                 @NonNull boolean[] decisions) {
+        if (offset < 0 || frameLength <= 0 || frames < 0 ||
+                offset + (long) frameLength * frames > x.length || frames > decisions.length) {
+            throw new IllegalArgumentException("Frames outside of the buffers");
+        }
+        if (mHandle == 0) {
+            return -1;
+        }
+        if (frames == 0) {
+            return 0;
+        }
+        return nativeProcessFrames(mHandle, mSampleRate, x, offset, frameLength, frames, decisions);
+    }
+
+    /**
+     * Runs all the whole frames between the buffer position and limit, up to the size of
+     * {@code decisions}, in a single native call and moves the position past them. The buffer
+     * must be direct and hold 16 bit samples in native byte order from an even position.
+     *
+     * @return the number of frames processed or a negative value on error.
+     */
+    public synchronized int feed(@NonNull ByteBuffer buffer, int frameLength, @NonNull boolean[] decisions) {
+        if (!buffer.isDirect() || buffer.order() != ByteOrder.nativeOrder()) {
+            throw new IllegalArgumentException("A direct buffer in native order is needed");
+        }
+        if (frameLength <= 0) {
+            throw new IllegalArgumentException("Invalid frame length: " + frameLength);
+        }
+        if (buffer.position() % 2 != 0) {
+            throw new IllegalArgumentException("Samples must start at an even position: " + buffer.position());
+        }
+        if (mHandle == 0) {
+            return -1;
+        }
+
+        int frames = Math.min(decisions.length, buffer.remaining() / 2 / frameLength);
+        if (frames == 0) {
+            return 0;
+        }
+        int result = nativeProcessBuffer(mHandle, mSampleRate, buffer, buffer.position(), frameLength, frames, decisions);
+        if (result > 0) {
+            buffer.position(buffer.position() + result * frameLength * 2);
+        }
+        return result;
+    }
+
+    protected int isSilence() {
+        return mLastResult;
+    }
+
+    public synchronized int stop() {
+        if (mHandle != 0) {
+            nativeFree(mHandle);
+            mHandle = 0;
+        }
+        return 0;
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    private static native long nativeCreate(int mode);
+    private static native void nativeFree(long handle);
+    private static native int nativeProcess(long handle, int sampleRate, short[] x, int n);
+    private static native int nativeProcessFrames(long handle, int sampleRate, short[] x, int offset,
+                                                  int frameLength, int frames, boolean[] decisions);
+    private static native int nativeProcessBuffer(long handle, int sampleRate, ByteBuffer buffer, int byteOffset,
+                                                  int frameLength, int frames, boolean[] decisions);
 }
@@ -0,0 +1,78 @@
+package com.mozilla.speechlibrary.audio;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A reference counted block of 16 bit PCM samples owned by an {@link AudioFramePool}.
+ * Whoever keeps a frame beyond the call it was handed in must {@link #retain()} it and
+ * {@link #release()} it once done, the last release returns the frame to its pool.
+ */
+public final class AudioFrame {
+
+    private final short[] mData;
+    private final AtomicInteger mRefCount;
+    @Nullable
+    private final AudioFramePool mPool;
+    private int mLength;
+
+    /**
+     * Creates a standalone frame that doesn't belong to any pool.
+     */
+    public AudioFrame(int capacity) {
+        this(capacity, null);
+        reset();
+    }
+
+    AudioFrame(int capacity, @Nullable AudioFramePool pool) {
+        mData = new short[capacity];
+        mRefCount = new AtomicInteger();
+        mPool = pool;
+    }
+
+    @NonNull
+    public short[] getData() {
+        return mData;
+    }
+
+    public int getCapacity() {
+        return mData.length;
+    }
+
+    public int getLength() {
+        return mLength;
+    }
+
+    public void setLength(int length) {
+        mLength = Math.max(0, Math.min(length, mData.length));
+    }
+
+    @NonNull
+    public AudioFrame retain() {
+        if (mRefCount.getAndIncrement() <= 0) {
+            mRefCount.decrementAndGet();
+            throw new IllegalStateException("Retaining a recycled audio frame");
+        }
+        return this;
+    }
+
+    public void release() {
+        int count = mRefCount.decrementAndGet();
+        if (count == 0) {
+            if (mPool != null) {
+                mPool.recycle(this);
+            }
+
+        } else if (count < 0) {
+            mRefCount.incrementAndGet();
+            throw new IllegalStateException("Audio frame released more times than retained");
+        }
+    }
+
+    void reset() {
+        mLength = 0;
+        mRefCount.set(1);
+    }
+}
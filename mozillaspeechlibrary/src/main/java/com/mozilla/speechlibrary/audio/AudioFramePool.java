@@ -0,0 +1,80 @@
+package com.mozilla.speechlibrary.audio;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Fixed size pool of {@link AudioFrame}s shared by the capture loop, the STT clients and the
+ * encoders. Frames are preallocated so a steady state session doesn't allocate per frame, the
+ * pool only grows if a consumer holds on to more frames than it was sized for.
+ */
+public class AudioFramePool {
+
+    private final int mFrameCapacity;
+    private final AudioFrame[] mFree;
+    private int mFreeCount;
+    private int mCreatedFrames;
+
+    public AudioFramePool(int frameCapacity, int poolSize) {
+        if (frameCapacity <= 0 || poolSize <= 0) {
+            throw new IllegalArgumentException("Invalid pool size: " + frameCapacity + "x" + poolSize);
+        }
+
+        mFrameCapacity = frameCapacity;
+        mFree = new AudioFrame[poolSize];
+        for (int i = 0; i < poolSize; i++) {
+            mFree[i] = new AudioFrame(frameCapacity, this);
+        }
+        mFreeCount = poolSize;
+        mCreatedFrames = poolSize;
+    }
+
+    /**
+     * Returns a frame with a reference count of one, the caller owns it and must release it.
+     */
+    @NonNull
+    public AudioFrame acquire() {
+        AudioFrame frame = null;
+        synchronized (this) {
+            if (mFreeCount > 0) {
+                frame = mFree[--mFreeCount];
+                mFree[mFreeCount] = null;
+
+            } else {
+                mCreatedFrames++;
+            }
+        }
+
+        if (frame == null) {
+            frame = new AudioFrame(mFrameCapacity, this);
+        }
+        frame.reset();
+
+        return frame;
+    }
+
+    synchronized void recycle(@NonNull AudioFrame frame) {
+        // Frames allocated past the pool size are left to the garbage collector
+        if (mFreeCount < mFree.length) {
+            mFree[mFreeCount++] = frame;
+        }
+    }
+
+    public int getFrameCapacity() {
+        return mFrameCapacity;
+    }
+
+    public int getPoolSize() {
+        return mFree.length;
+    }
+
+    public synchronized int getAvailableFrames() {
+        return mFreeCount;
+    }
+
+    /**
+     * Total number of frames this pool ever allocated, including the preallocated ones.
+     */
+    public synchronized int getCreatedFrames() {
+        return mCreatedFrames;
+    }
+}
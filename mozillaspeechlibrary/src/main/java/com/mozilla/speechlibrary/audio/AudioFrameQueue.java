@@ -0,0 +1,270 @@
+package com.mozilla.speechlibrary.audio;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded hand-off of {@link AudioFrame}s from the capture thread to a consumer thread. The
+ * capacity is counted in samples so it doesn't depend on the frame size. The consumer parks
+ * while the queue is empty and {@link #take()} returns null once the queue is closed and
+ * drained. Markers are never dropped and don't count against the capacity.
+ */
+public class AudioFrameQueue {
+
+    private final ArrayDeque<AudioFrame> mFrames = new ArrayDeque<>();
+    private final ReentrantLock mLock = new ReentrantLock();
+    private final Condition mNotEmpty = mLock.newCondition();
+    private final Condition mNotFull = mLock.newCondition();
+    private final long mCapacitySamples;
+    @NonNull
+    private final OverflowPolicy mPolicy;
+    private long mQueuedSamples;
+    private long mMaxQueuedSamples;
+    private long mDroppedSamples;
+    private long mRejectedSamples;
+    private boolean mClosed;
+
+    public AudioFrameQueue(long capacitySamples, @NonNull OverflowPolicy policy) {
+        if (capacitySamples <= 0) {
+            throw new IllegalArgumentException("Invalid queue capacity: " + capacitySamples);
+        }
+        mCapacitySamples = capacitySamples;
+        mPolicy = policy;
+    }
+
+    /**
+     * Queues the frame, the queue takes over the caller's reference if it returns true. A frame
+     * bigger than the whole capacity is still accepted once the queue is empty.
+     *
+     * @return false if the queue is closed, or full with the {@link OverflowPolicy#BACKPRESSURE} policy.
+     */
+    public boolean offer(@NonNull AudioFrame frame) throws InterruptedException {
+        int length = frame.getLength();
+        mLock.lock();
+        try {
+            while (!mClosed && mQueuedSamples > 0 && mQueuedSamples + length > mCapacitySamples) {
+                if (mPolicy == OverflowPolicy.BLOCK) {
+                    mNotFull.await();
+
+                } else if (mPolicy == OverflowPolicy.DROP_OLDEST) {
+                    dropOldest();
+
+                } else {
+                    mRejectedSamples += length;
+                    return false;
+                }
+            }
+            if (mClosed) {
+                return false;
+            }
+
+            mFrames.addLast(frame);
+            mQueuedSamples += length;
+            mMaxQueuedSamples = Math.max(mMaxQueuedSamples, mQueuedSamples);
+            mNotEmpty.signal();
+            return true;
+
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    /**
+     * Queues a marker frame, markers are never dropped and never wait for room.
+     */
+    public void putMarker(@NonNull AudioFrame marker) {
+        mLock.lock();
+        try {
+            if (!mClosed) {
+                mFrames.addLast(marker);
+                mNotEmpty.signal();
+            }
+
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    private void dropOldest() {
+        Iterator<AudioFrame> iterator = mFrames.iterator();
+        while (iterator.hasNext()) {
+            AudioFrame oldest = iterator.next();
+            if (oldest.getLength() > 0) {
+                iterator.remove();
+                mQueuedSamples -= oldest.getLength();
+                mDroppedSamples += oldest.getLength();
+                oldest.release();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Waits for the next frame, the caller owns the returned reference.
+     *
+     * @return null once the queue is closed and empty.
+     */
+    @Nullable
+    public AudioFrame take() throws InterruptedException {
+        mLock.lock();
+        try {
+            while (mFrames.isEmpty() && !mClosed) {
+                mNotEmpty.await();
+            }
+            return poll();
+
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    /**
+     * Like {@link #take()} but gives up after the timeout.
+     *
+     * @return null on timeout or once the queue is closed and empty, {@link #isDrained()} tells them apart.
+     */
+    @Nullable
+    public AudioFrame take(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        mLock.lock();
+        try {
+            while (mFrames.isEmpty() && !mClosed) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = mNotEmpty.awaitNanos(nanos);
+            }
+            return poll();
+
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    private AudioFrame poll() {
+        AudioFrame frame = mFrames.pollFirst();
+        if (frame != null) {
+            mQueuedSamples -= frame.getLength();
+            mNotFull.signal();
+        }
+        return frame;
+    }
+
+    /**
+     * Marks the end of the stream, the frames already queued are still handed out.
+     */
+    public void close() {
+        mLock.lock();
+        try {
+            mClosed = true;
+            mNotEmpty.signalAll();
+            mNotFull.signalAll();
+
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    /**
+     * Closes the queue and returns the queued frames except the markers to their pool.
+     */
+    public void clear(@NonNull AudioFrame... markers) {
+        mLock.lock();
+        try {
+            mClosed = true;
+            AudioFrame frame;
+            while ((frame = mFrames.pollFirst()) != null) {
+                if (!isMarker(frame, markers)) {
+                    frame.release();
+                }
+            }
+            mQueuedSamples = 0;
+            mNotEmpty.signalAll();
+            mNotFull.signalAll();
+
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    private static boolean isMarker(@NonNull AudioFrame frame, @NonNull AudioFrame[] markers) {
+        for (AudioFrame marker : markers) {
+            if (frame == marker) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isDrained() {
+        mLock.lock();
+        try {
+            return mClosed && mFrames.isEmpty();
+
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    public boolean isFull() {
+        mLock.lock();
+        try {
+            return mQueuedSamples >= mCapacitySamples;
+
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    /**
+     * Samples waiting for the consumer.
+     */
+    public long getDepthSamples() {
+        mLock.lock();
+        try {
+            return mQueuedSamples;
+
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    /**
+     * Highest depth reached since the queue was created.
+     */
+    public long getMaxDepthSamples() {
+        mLock.lock();
+        try {
+            return mMaxQueuedSamples;
+
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    public long getDroppedSamples() {
+        mLock.lock();
+        try {
+            return mDroppedSamples;
+
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    public long getRejectedSamples() {
+        mLock.lock();
+        try {
+            return mRejectedSamples;
+
+        } finally {
+            mLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.mozilla.speechlibrary.audio;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Fixed size ring of the most recent samples, older samples are overwritten once it is full.
+ * It never allocates after construction. Not thread safe.
+ */
+public class AudioRingBuffer {
+
+    private final short[] mData;
+    private int mStart;
+    private int mSize;
+
+    public AudioRingBuffer(int capacity) {
+        mData = new short[Math.max(0, capacity)];
+    }
+
+    public void write(@NonNull short[] buffer, int offset, int length) {
+        int capacity = mData.length;
+        if (capacity == 0 || length <= 0) {
+            return;
+        }
+
+        // Only the newest samples fit
+        if (length > capacity) {
+            offset += length - capacity;
+            length = capacity;
+        }
+
+        int end = (mStart + mSize) % capacity;
+        int first = Math.min(length, capacity - end);
+        System.arraycopy(buffer, offset, mData, end, first);
+        System.arraycopy(buffer, offset + first, mData, 0, length - first);
+
+        int overflow = mSize + length - capacity;
+        if (overflow > 0) {
+            mStart = (mStart + overflow) % capacity;
+            mSize = capacity;
+
+        } else {
+            mSize += length;
+        }
+    }
+
+    /**
+     * Moves up to {@code length} of the oldest samples into {@code buffer}.
+     *
+     * @return the number of samples read.
+     */
+    public int read(@NonNull short[] buffer, int offset, int length) {
+        int count = Math.min(length, mSize);
+        if (count <= 0) {
+            return 0;
+        }
+
+        int capacity = mData.length;
+        int first = Math.min(count, capacity - mStart);
+        System.arraycopy(mData, mStart, buffer, offset, first);
+        System.arraycopy(mData, 0, buffer, offset + first, count - first);
+
+        mStart = (mStart + count) % capacity;
+        mSize -= count;
+
+        return count;
+    }
+
+    public void clear() {
+        mStart = 0;
+        mSize = 0;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public int capacity() {
+        return mData.length;
+    }
+}
@@ -0,0 +1,36 @@
+package com.mozilla.speechlibrary.audio;
+
+import androidx.annotation.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Source of 16 bit PCM samples fed to the recognition loop. The microphone is just one
+ * implementation, recorded audio can be replayed through the same pipeline at full CPU speed.
+ */
+public interface AudioSource extends Closeable {
+
+    void open() throws IOException;
+
+    int getSampleRate();
+
+    int getChannels();
+
+    /**
+     * Reads up to {@code length} samples into {@code buffer}.
+     *
+     * @return the number of samples read or a negative value once the source is exhausted.
+     */
+    int read(@NonNull short[] buffer, int offset, int length) throws IOException;
+
+    /**
+     * Whether reads are paced by a real clock, file based sources return as fast as they can.
+     */
+    default boolean isRealTime() {
+        return false;
+    }
+
+    @Override
+    void close();
+}
@@ -0,0 +1,40 @@
+package com.mozilla.speechlibrary.audio;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.util.Locale;
+
+public class AudioSources {
+
+    public static final int DEFAULT_SAMPLE_RATE = 16000;
+
+    /**
+     * Picks a source for a recorded file based on its extension. Headerless {@code .raw} and
+     * {@code .pcm} files are assumed to be 16kHz mono.
+     */
+    @Nullable
+    public static AudioSource forFile(@NonNull Context context, @NonNull File file) {
+        String name = file.getName().toLowerCase(Locale.US);
+        if (name.endsWith(".wav")) {
+            return new PcmFileAudioSource(file);
+
+        } else if (name.endsWith(".raw") || name.endsWith(".pcm")) {
+            return new PcmFileAudioSource(file, DEFAULT_SAMPLE_RATE, 1);
+
+        } else if (name.endsWith(".opus") || name.endsWith(".ogg")) {
+            return new OpusFileAudioSource(context, file, DEFAULT_SAMPLE_RATE);
+        }
+
+        return null;
+    }
+
+    public static boolean isSupported(@NonNull File file) {
+        String name = file.getName().toLowerCase(Locale.US);
+        return name.endsWith(".wav") || name.endsWith(".raw") || name.endsWith(".pcm") ||
+                name.endsWith(".opus") || name.endsWith(".ogg");
+    }
+}
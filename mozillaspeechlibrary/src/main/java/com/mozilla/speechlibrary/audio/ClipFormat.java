@@ -0,0 +1,11 @@
+package com.mozilla.speechlibrary.audio;
+
+/**
+ * File format of the clips written by a {@link ClipRecorder}.
+ */
+public enum ClipFormat {
+    // 16 bit PCM, larger but written without any encoding cost
+    WAV,
+    // Ogg/Opus like the network client uploads, needs the Opus natives
+    OPUS
+}
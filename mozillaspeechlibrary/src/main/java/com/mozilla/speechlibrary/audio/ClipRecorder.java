@@ -0,0 +1,333 @@
+package com.mozilla.speechlibrary.audio;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.github.axet.audiolibrary.encoders.Encoder;
+import com.github.axet.audiolibrary.encoders.EncoderInfo;
+import com.github.axet.audiolibrary.encoders.Factory;
+import com.github.axet.audiolibrary.encoders.FormatOPUS;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Writes the audio of a session to a numbered clip file on its own thread. The caller only
+ * retains the frame and queues it, frames that find the queue full are dropped rather than
+ * waited for. The writer batches the frames in large blocks, the oldest clips are deleted past
+ * the clip count and a clip stops growing at its maximum duration.
+ */
+public class ClipRecorder implements Closeable {
+
+    private static final String TAG = ClipRecorder.class.getSimpleName();
+
+    private static final String PREFIX = "clip_";
+    private static final Pattern CLIP_NAME = Pattern.compile(PREFIX + "(\\d+)\\.(wav|opus)");
+    private static final int WAV_HEADER_BYTES = 44;
+    private static final int BLOCK_BYTES = 64 * 1024;
+    // About 10 seconds of 20ms frames
+    private static final int QUEUE_FRAMES = 512;
+    private static final AudioFrame END = new AudioFrame(0);
+
+    @Nullable
+    private final Context mContext;
+    private final File mDirectory;
+    private final ClipFormat mFormat;
+    private final int mSampleRate;
+    private final int mMaxClips;
+    private final long mMaxSamples;
+    private final ArrayBlockingQueue<AudioFrame> mQueue = new ArrayBlockingQueue<>(QUEUE_FRAMES);
+    private File mFile;
+    private FileChannel mChannel;
+    private ByteBuffer mBlock;
+    private Encoder mEncoder;
+    private ByteArrayOutputStream mEncoded;
+    private Thread mThread;
+    private volatile boolean mFailed;
+    private volatile long mWrittenSamples;
+    // Counted by the caller when the queue is full and by the writer when the clip is full
+    private final AtomicLong mDroppedSamples = new AtomicLong();
+
+    /**
+     * @param context only needed for {@link ClipFormat#OPUS}.
+     */
+    public ClipRecorder(@Nullable Context context, @NonNull File directory, @NonNull ClipFormat format,
+                        int sampleRate, int maxClips, int maxClipMs) {
+        mContext = context;
+        mDirectory = directory;
+        mFormat = format;
+        mSampleRate = sampleRate;
+        mMaxClips = Math.max(1, maxClips);
+        mMaxSamples = (long) maxClipMs * sampleRate / 1000;
+    }
+
+    /**
+     * Creates the next clip file, deleting the oldest ones to stay under the clip count, and
+     * starts the writer.
+     */
+    public void open() throws IOException {
+        int number = rotate(mDirectory, mMaxClips);
+        mFile = new File(mDirectory, PREFIX + number + (mFormat == ClipFormat.WAV ? ".wav" : ".opus"));
+        mChannel = new FileOutputStream(mFile).getChannel();
+
+        if (mFormat == ClipFormat.WAV) {
+            mBlock = ByteBuffer.allocateDirect(BLOCK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            // Written again with the sizes once the clip is done
+            mChannel.write(wavHeader(mSampleRate, 0));
+
+        } else {
+            if (mContext == null) {
+                throw new IOException("Opus clips need a context");
+            }
+            mEncoded = new ByteArrayOutputStream(BLOCK_BYTES);
+            mEncoder = Factory.getEncoder(mContext, FormatOPUS.EXT,
+                    new EncoderInfo(1, mSampleRate, 16), mEncoded);
+            if (mEncoder == null) {
+                throw new IOException("Opus isn't supported");
+            }
+        }
+
+        mThread = new Thread(this::drain, TAG);
+        mThread.start();
+    }
+
+    /**
+     * Queues the frame for writing, never blocks. The frame is retained until written.
+     */
+    public void write(@NonNull AudioFrame frame) {
+        if (mThread == null || mFailed || frame.getLength() == 0) {
+            return;
+        }
+        if (!mQueue.offer(frame.retain())) {
+            mDroppedSamples.addAndGet(frame.getLength());
+            frame.release();
+        }
+    }
+
+    /**
+     * Whether writing the clip failed, nothing more is recorded then.
+     */
+    public boolean isFailed() {
+        return mFailed;
+    }
+
+    @Nullable
+    public File getFile() {
+        return mFile;
+    }
+
+    public long getWrittenMs() {
+        return mWrittenSamples * 1000 / mSampleRate;
+    }
+
+    /**
+     * Audio left out of the clip, because the writer was behind or the clip was full.
+     */
+    public long getDroppedMs() {
+        return mDroppedSamples.get() * 1000 / mSampleRate;
+    }
+
+    /**
+     * Writes what's queued, completes the file and stops the writer.
+     */
+    @Override
+    public void close() {
+        if (mThread == null) {
+            return;
+        }
+
+        // A failed writer isn't draining anymore, the queued frames are released here
+        if (mFailed || !mQueue.offer(END)) {
+            mFailed = true;
+            mThread.interrupt();
+        }
+        try {
+            mThread.join();
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        releaseQueued();
+        mThread = null;
+    }
+
+    private void drain() {
+        List<AudioFrame> batch = new ArrayList<>(QUEUE_FRAMES);
+        boolean done = false;
+        try {
+            while (!done) {
+                batch.add(mQueue.take());
+                mQueue.drainTo(batch);
+
+                for (AudioFrame frame : batch) {
+                    if (frame == END) {
+                        done = true;
+
+                    } else {
+                        append(frame.getData(), frame.getLength());
+                        frame.release();
+                    }
+                }
+                batch.clear();
+            }
+
+            finish();
+
+        } catch (InterruptedException | IOException e) {
+            mFailed = true;
+            Log.e(TAG, "Clip not completed: " + e.getMessage());
+            for (AudioFrame frame : batch) {
+                if (frame != END) {
+                    frame.release();
+                }
+            }
+            releaseQueued();
+
+        } finally {
+            try {
+                mChannel.close();
+
+            } catch (IOException ignored) {}
+        }
+    }
+
+    private void releaseQueued() {
+        AudioFrame frame;
+        while ((frame = mQueue.poll()) != null) {
+            if (frame != END) {
+                frame.release();
+            }
+        }
+    }
+
+    private void append(@NonNull short[] samples, int length) throws IOException {
+        int room = (int) Math.min(length, mMaxSamples - mWrittenSamples);
+        mDroppedSamples.addAndGet(length - room);
+        if (room <= 0) {
+            return;
+        }
+
+        if (mEncoder != null) {
+            mEncoder.encode(samples, 0, room);
+            if (mEncoded.size() >= BLOCK_BYTES) {
+                flushEncoded();
+            }
+
+        } else {
+            for (int i = 0; i < room; i++) {
+                if (!mBlock.hasRemaining()) {
+                    flushBlock();
+                }
+                mBlock.putShort(samples[i]);
+            }
+        }
+        mWrittenSamples += room;
+    }
+
+    private void flushBlock() throws IOException {
+        mBlock.flip();
+        while (mBlock.hasRemaining()) {
+            mChannel.write(mBlock);
+        }
+        mBlock.clear();
+    }
+
+    private void flushEncoded() throws IOException {
+        mEncoded.writeTo(Channels.newOutputStream(mChannel));
+        mEncoded.reset();
+    }
+
+    private void finish() throws IOException {
+        if (mEncoder != null) {
+            mEncoder.close();
+            flushEncoded();
+
+        } else {
+            flushBlock();
+            ByteBuffer header = wavHeader(mSampleRate, mWrittenSamples * 2);
+            while (header.hasRemaining()) {
+                mChannel.write(header, header.position());
+            }
+        }
+    }
+
+    /**
+     * Header of a mono 16 bit PCM WAV file.
+     */
+    @NonNull
+    static ByteBuffer wavHeader(int sampleRate, long dataBytes) {
+        ByteBuffer header = ByteBuffer.allocate(WAV_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(new byte[] {'R', 'I', 'F', 'F'});
+        header.putInt((int) (dataBytes + WAV_HEADER_BYTES - 8));
+        header.put(new byte[] {'W', 'A', 'V', 'E', 'f', 'm', 't', ' '});
+        header.putInt(16);
+        // PCM, mono
+        header.putShort((short) 1);
+        header.putShort((short) 1);
+        header.putInt(sampleRate);
+        header.putInt(sampleRate * 2);
+        header.putShort((short) 2);
+        header.putShort((short) 16);
+        header.put(new byte[] {'d', 'a', 't', 'a'});
+        header.putInt((int) dataBytes);
+        header.flip();
+        return header;
+    }
+
+    /**
+     * Deletes the oldest clips so one more fits under the count.
+     *
+     * @return the number of the next clip.
+     */
+    static int rotate(@NonNull File directory, int maxClips) {
+        List<Integer> numbers = new ArrayList<>();
+        List<File> files = new ArrayList<>();
+        File[] existing = directory.listFiles();
+        if (existing != null) {
+            for (File file : existing) {
+                Matcher matcher = CLIP_NAME.matcher(file.getName());
+                if (matcher.matches()) {
+                    numbers.add(Integer.parseInt(matcher.group(1)));
+                    files.add(file);
+                }
+            }
+        }
+
+        int next = 1;
+        for (int number : numbers) {
+            next = Math.max(next, number + 1);
+        }
+
+        while (files.size() >= maxClips) {
+            int oldest = 0;
+            for (int i = 1; i < numbers.size(); i++) {
+                if (numbers.get(i) < numbers.get(oldest)) {
+                    oldest = i;
+                }
+            }
+            if (!files.get(oldest).delete()) {
+                Log.w(TAG, "Couldn't delete " + files.get(oldest));
+            }
+            files.remove(oldest);
+            numbers.remove(oldest);
+        }
+
+        return next;
+    }
+}
@@ -0,0 +1,85 @@
+package com.mozilla.speechlibrary.audio;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Incremental RMS and peak meter for 16 bit PCM. It accumulates every frame on the capture
+ * thread and only produces a reading at the publish rate, which is counted in samples so it
+ * behaves the same for live and replayed audio.
+ */
+public class LevelMeter {
+
+    // Level reported for digital silence
+    public static final double MIN_DB = -96;
+
+    private final int mSamplesPerReading;
+    private double mSumSquares;
+    private int mPeak;
+    private int mSamples;
+    private double mRmsDb;
+    private double mPeakDb;
+
+    public LevelMeter(int sampleRate, int publishRateHz) {
+        mSamplesPerReading = Math.max(1, sampleRate / Math.max(1, publishRateHz));
+        mRmsDb = MIN_DB;
+        mPeakDb = MIN_DB;
+    }
+
+    /**
+     * Accumulates a frame.
+     *
+     * @return true when a new reading is available.
+     */
+    public boolean process(@NonNull short[] buffer, int length) {
+        for (int i = 0; i < length; i++) {
+            int sample = buffer[i];
+            mSumSquares += sample * sample;
+            int abs = sample < 0 ? -sample : sample;
+            if (abs > mPeak) {
+                mPeak = abs;
+            }
+        }
+        mSamples += length;
+
+        if (mSamples < mSamplesPerReading) {
+            return false;
+        }
+
+        mRmsDb = toDb(Math.sqrt(mSumSquares / mSamples));
+        mPeakDb = toDb(mPeak);
+        mSumSquares = 0;
+        mPeak = 0;
+        mSamples = 0;
+
+        return true;
+    }
+
+    /**
+     * RMS level of the last reading in dBFS.
+     */
+    public double getRmsDb() {
+        return mRmsDb;
+    }
+
+    /**
+     * Peak level of the last reading in dBFS.
+     */
+    public double getPeakDb() {
+        return mPeakDb;
+    }
+
+    public void reset() {
+        mSumSquares = 0;
+        mPeak = 0;
+        mSamples = 0;
+        mRmsDb = MIN_DB;
+        mPeakDb = MIN_DB;
+    }
+
+    private static double toDb(double amplitude) {
+        if (amplitude <= 0) {
+            return MIN_DB;
+        }
+        return Math.max(MIN_DB, 20 * Math.log10(amplitude / Short.MAX_VALUE));
+    }
+}
@@ -0,0 +1,71 @@
+package com.mozilla.speechlibrary.audio;
+
+import android.media.AudioRecord;
+
+import androidx.annotation.NonNull;
+
+import com.github.axet.audiolibrary.encoders.Sound;
+
+import java.io.IOException;
+
+public class MicAudioSource implements AudioSource {
+
+    private int mSampleRate;
+    private int mChannels;
+    private AudioRecord mRecorder;
+
+    public MicAudioSource(int sampleRate, int channels) {
+        mSampleRate = sampleRate;
+        mChannels = channels;
+    }
+
+    @Override
+    public void open() throws IOException {
+        mRecorder = Sound.getAudioRecord(mChannels, mSampleRate);
+        if (mRecorder.getState() != AudioRecord.STATE_INITIALIZED) {
+            mRecorder.release();
+            mRecorder = null;
+            throw new IOException("Error initializing the microphone");
+        }
+        mRecorder.startRecording();
+    }
+
+    @Override
+    public int getSampleRate() {
+        return mSampleRate;
+    }
+
+    @Override
+    public int getChannels() {
+        return mChannels;
+    }
+
+    @Override
+    public int read(@NonNull short[] buffer, int offset, int length) {
+        if (mRecorder == null) {
+            return -1;
+        }
+        return mRecorder.read(buffer, offset, length);
+    }
+
+    @Override
+    public boolean isRealTime() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (mRecorder != null) {
+            try {
+                mRecorder.stop();
+
+            } catch (IllegalStateException e) {
+                e.printStackTrace();
+
+            } finally {
+                mRecorder.release();
+                mRecorder = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.mozilla.speechlibrary.audio;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.github.axet.audiolibrary.encoders.FormatOPUS;
+import com.github.axet.opusjni.Opus;
+
+import org.gagravarr.ogg.OggFile;
+import org.gagravarr.opus.OpusAudioData;
+import org.gagravarr.opus.OpusFile;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Decodes an Ogg/Opus file, like the ones the network client uploads, straight to the
+ * requested sample rate. Multichannel streams are down mixed to mono.
+ */
+public class OpusFileAudioSource implements AudioSource {
+
+    // Opus always signals pre-skip in 48kHz samples
+    private static final int OPUS_RATE = 48000;
+
+    private Context mContext;
+    private File mFile;
+    private int mSampleRate;
+    private int mChannels;
+    private OpusFile mOpusFile;
+    private Opus mDecoder;
+    private short[] mDecoded;
+    private int mDecodedPos;
+    private int mDecodedLen;
+    private int mSkip;
+
+    public OpusFileAudioSource(@NonNull Context context, @NonNull File file, int sampleRate) {
+        mContext = context;
+        mFile = file;
+        mSampleRate = FormatOPUS.match(sampleRate);
+    }
+
+    @NonNull
+    public File getFile() {
+        return mFile;
+    }
+
+    @Override
+    public void open() throws IOException {
+        FormatOPUS.natives(mContext);
+
+        mOpusFile = new OpusFile(new OggFile(new BufferedInputStream(new FileInputStream(mFile))));
+        mChannels = Math.max(1, mOpusFile.getInfo().getNumChannels());
+        mSkip = (int) ((long) mOpusFile.getInfo().getPreSkip() * mSampleRate / OPUS_RATE);
+
+        mDecoder = new Opus();
+        mDecoder.open(mChannels, mSampleRate, FormatOPUS.getBitrate(mSampleRate));
+    }
+
+    @Override
+    public int getSampleRate() {
+        return mSampleRate;
+    }
+
+    @Override
+    public int getChannels() {
+        return 1;
+    }
+
+    @Override
+    public int read(@NonNull short[] buffer, int offset, int length) throws IOException {
+        while (mDecodedPos >= mDecodedLen) {
+            OpusAudioData packet = mOpusFile.getNextAudioPacket();
+            if (packet == null) {
+                return -1;
+            }
+            byte[] data = packet.getData();
+            mDecoded = mDecoder.decode(data, 0, data.length);
+            mDecodedLen = mDecoded != null ? mDecoded.length / mChannels : 0;
+            mDecodedPos = Math.min(mSkip, mDecodedLen);
+            mSkip -= mDecodedPos;
+        }
+
+        int samples = Math.min(length, mDecodedLen - mDecodedPos);
+        for (int i = 0; i < samples; i++) {
+            int base = (mDecodedPos + i) * mChannels;
+            int sum = 0;
+            for (int c = 0; c < mChannels; c++) {
+                sum += mDecoded[base + c];
+            }
+            buffer[offset + i] = (short) (sum / mChannels);
+        }
+        mDecodedPos += samples;
+
+        return samples;
+    }
+
+    @Override
+    public void close() {
+        if (mDecoder != null) {
+            mDecoder.close();
+            mDecoder = null;
+        }
+        if (mOpusFile != null) {
+            try {
+                mOpusFile.close();
+
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            mOpusFile = null;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.mozilla.speechlibrary.audio;
+
+/**
+ * What an {@link AudioFrameQueue} does with a frame that doesn't fit.
+ */
+public enum OverflowPolicy {
+    // The producer waits for room, no audio is lost but capture stalls
+    BLOCK,
+    // The oldest queued audio is dropped to make room
+    DROP_OLDEST,
+    // The frame is refused and the producer is told, it decides what to do with it
+    BACKPRESSURE
+}
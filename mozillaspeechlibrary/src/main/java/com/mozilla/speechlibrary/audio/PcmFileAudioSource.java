@@ -0,0 +1,126 @@
+package com.mozilla.speechlibrary.audio;
+
+import androidx.annotation.NonNull;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Replays a 16 bit PCM WAV file, or a headerless raw PCM file when the format is given.
+ */
+public class PcmFileAudioSource extends StreamAudioSource {
+
+    private static final int PCM_FORMAT = 1;
+    private static final int EXTENSIBLE_FORMAT = 0xfffe;
+
+    private File mFile;
+    private boolean mRaw;
+
+    /**
+     * Opens a WAV file, the format is read from its header.
+     */
+    public PcmFileAudioSource(@NonNull File file) {
+        super();
+        mFile = file;
+        mRaw = false;
+    }
+
+    /**
+     * Opens a headerless little endian 16 bit PCM file.
+     */
+    public PcmFileAudioSource(@NonNull File file, int sampleRate, int channels) {
+        super();
+        mFile = file;
+        mRaw = true;
+        mSampleRate = sampleRate;
+        mChannels = channels;
+    }
+
+    @NonNull
+    public File getFile() {
+        return mFile;
+    }
+
+    @Override
+    public void open() throws IOException {
+        mInput = new BufferedInputStream(new FileInputStream(mFile));
+        if (!mRaw) {
+            try {
+                readWavHeader(mInput);
+
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+        super.open();
+    }
+
+    private void readWavHeader(@NonNull InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(input);
+        byte[] id = new byte[4];
+
+        in.readFully(id);
+        if (!"RIFF".equals(new String(id, "US-ASCII"))) {
+            throw new IOException("Not a WAV file: " + mFile);
+        }
+        readIntLE(in);
+        in.readFully(id);
+        if (!"WAVE".equals(new String(id, "US-ASCII"))) {
+            throw new IOException("Not a WAV file: " + mFile);
+        }
+
+        boolean hasFormat = false;
+        while (true) {
+            in.readFully(id);
+            String chunk = new String(id, "US-ASCII");
+            long size = readIntLE(in) & 0xffffffffL;
+
+            if ("fmt ".equals(chunk)) {
+                int format = readShortLE(in);
+                mChannels = readShortLE(in);
+                mSampleRate = readIntLE(in);
+                readIntLE(in); // byte rate
+                readShortLE(in); // block align
+                int bits = readShortLE(in);
+                if ((format != PCM_FORMAT && format != EXTENSIBLE_FORMAT) || bits != 16) {
+                    throw new IOException("Unsupported WAV encoding: format " + format + ", " + bits + " bits");
+                }
+                skipFully(in, size - 16);
+                hasFormat = true;
+
+            } else if ("data".equals(chunk)) {
+                if (!hasFormat) {
+                    throw new IOException("WAV data chunk before fmt chunk");
+                }
+                return;
+
+            } else {
+                // Chunks are word aligned
+                skipFully(in, size + (size & 1));
+            }
+        }
+    }
+
+    private static int readIntLE(@NonNull DataInputStream in) throws IOException {
+        return Integer.reverseBytes(in.readInt());
+    }
+
+    private static int readShortLE(@NonNull DataInputStream in) throws IOException {
+        return Short.reverseBytes(in.readShort()) & 0xffff;
+    }
+
+    private static void skipFully(@NonNull DataInputStream in, long count) throws IOException {
+        while (count > 0) {
+            int skipped = in.skipBytes((int) Math.min(count, Integer.MAX_VALUE));
+            if (skipped <= 0) {
+                throw new IOException("Truncated WAV file");
+            }
+            count -= skipped;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.mozilla.speechlibrary.audio;
+
+import android.os.Process;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Microphone source that can be armed ahead of a session. While armed it keeps the most recent
+ * audio in a ring buffer, a session opening it first reads that pre-roll and then the live
+ * microphone, so speech started before the session isn't lost.
+ *
+ * Closing it at the end of a session re-arms it, only {@link #disarm()} releases the microphone.
+ * The session has to close it from the thread that reads it, once it stopped reading.
+ */
+public class PreRollAudioSource implements AudioSource {
+
+    private static final String TAG = PreRollAudioSource.class.getSimpleName();
+
+    private static final int FRAME_SIZE = 320;
+
+    private final MicAudioSource mMic;
+    private final AudioRingBuffer mPreRoll;
+    private final short[] mScratch;
+    // Held by whoever reads the microphone and the ring buffer, the capture thread or the session
+    private final Object mReadLock = new Object();
+    private final AtomicReference<Thread> mArmThread = new AtomicReference<>();
+    private volatile boolean mCapturing;
+    private boolean mArmed;
+    private boolean mMicOpen;
+    private boolean mSessionOpen;
+
+    public PreRollAudioSource(int sampleRate, int channels, int preRollMs) {
+        mMic = new MicAudioSource(sampleRate, channels);
+        mPreRoll = new AudioRingBuffer(preRollMs * sampleRate / 1000 * channels);
+        mScratch = new short[FRAME_SIZE * channels];
+    }
+
+    public synchronized void arm() throws IOException {
+        if (mArmed) {
+            return;
+        }
+
+        openMic();
+        mArmed = true;
+        startCapture();
+    }
+
+    /**
+     * Releases the microphone, or lets the session using it release it when it closes the source.
+     */
+    public synchronized void disarm() {
+        mArmed = false;
+        stopCapture();
+        if (!mSessionOpen) {
+            closeMic();
+            synchronized (mReadLock) {
+                mPreRoll.clear();
+            }
+        }
+    }
+
+    public synchronized boolean isArmed() {
+        return mArmed;
+    }
+
+    @Override
+    public synchronized void open() throws IOException {
+        stopCapture();
+        openMic();
+        mSessionOpen = true;
+    }
+
+    @Override
+    public int getSampleRate() {
+        return mMic.getSampleRate();
+    }
+
+    @Override
+    public int getChannels() {
+        return mMic.getChannels();
+    }
+
+    @Override
+    public int read(@NonNull short[] buffer, int offset, int length) {
+        synchronized (mReadLock) {
+            if (mPreRoll.size() > 0) {
+                return mPreRoll.read(buffer, offset, length);
+            }
+            return mMic.read(buffer, offset, length);
+        }
+    }
+
+    @Override
+    public boolean isRealTime() {
+        return true;
+    }
+
+    @Override
+    public synchronized void close() {
+        mSessionOpen = false;
+        synchronized (mReadLock) {
+            mPreRoll.clear();
+        }
+        if (mArmed) {
+            startCapture();
+
+        } else {
+            closeMic();
+        }
+    }
+
+    public int getBufferedSamples() {
+        synchronized (mReadLock) {
+            return mPreRoll.size();
+        }
+    }
+
+    private void openMic() throws IOException {
+        if (!mMicOpen) {
+            mMic.open();
+            mMicOpen = true;
+        }
+    }
+
+    private void closeMic() {
+        if (mMicOpen) {
+            mMic.close();
+            mMicOpen = false;
+        }
+    }
+
+    private void startCapture() {
+        if (mArmThread.get() != null) {
+            return;
+        }
+
+        mCapturing = true;
+        Thread thread = new Thread(this::capture, "Pre-roll Thread");
+        mArmThread.set(thread);
+        thread.start();
+    }
+
+    private void capture() {
+        Process.setThreadPriority(Process.THREAD_PRIORITY_AUDIO);
+        try {
+            while (mCapturing) {
+                synchronized (mReadLock) {
+                    int read = mMic.read(mScratch, 0, mScratch.length);
+                    if (read < 0) {
+                        Log.e(TAG, "Microphone read failed while armed: " + read);
+                        break;
+                    }
+                    mPreRoll.write(mScratch, 0, read);
+                }
+            }
+
+        } finally {
+            // The next close() starts capturing again
+            mArmThread.compareAndSet(Thread.currentThread(), null);
+        }
+    }
+
+    private void stopCapture() {
+        Thread thread = mArmThread.get();
+        if (thread == null) {
+            return;
+        }
+
+        mCapturing = false;
+        try {
+            thread.join();
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        mArmThread.compareAndSet(thread, null);
+    }
+}
@@ -0,0 +1,113 @@
+package com.mozilla.speechlibrary.audio;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads signed 16 bit little endian PCM from an {@link InputStream}. Interleaved multichannel
+ * audio is down mixed to mono so the recognition pipeline always gets a single channel.
+ */
+public class StreamAudioSource implements AudioSource {
+
+    private static final int BYTES_PER_SAMPLE = 2;
+
+    InputStream mInput;
+    int mSampleRate;
+    int mChannels;
+    private byte[] mBytes;
+    private int mPendingBytes;
+
+    public StreamAudioSource(@NonNull InputStream input, int sampleRate, int channels) {
+        mInput = input;
+        mSampleRate = sampleRate;
+        mChannels = channels;
+    }
+
+    // Subclasses reading a header fill in the input and format in open()
+    StreamAudioSource() {
+        mSampleRate = 0;
+        mChannels = 1;
+    }
+
+    @Override
+    public void open() throws IOException {
+        if (mInput == null) {
+            throw new IOException("No input stream");
+        }
+        if (mChannels <= 0 || mSampleRate <= 0) {
+            throw new IOException("Invalid audio format: " + mSampleRate + "Hz " + mChannels + "ch");
+        }
+    }
+
+    @Override
+    public int getSampleRate() {
+        return mSampleRate;
+    }
+
+    /**
+     * Always one, multichannel input is down mixed while reading.
+     */
+    @Override
+    public int getChannels() {
+        return 1;
+    }
+
+    @Override
+    public int read(@NonNull short[] buffer, int offset, int length) throws IOException {
+        if (length <= 0) {
+            return 0;
+        }
+
+        int frameBytes = BYTES_PER_SAMPLE * mChannels;
+        int wanted = length * frameBytes;
+        if (mBytes == null || mBytes.length < wanted) {
+            byte[] bytes = new byte[wanted];
+            if (mBytes != null) {
+                System.arraycopy(mBytes, 0, bytes, 0, mPendingBytes);
+            }
+            mBytes = bytes;
+        }
+
+        // Keep reading until at least one whole sample frame is available
+        int available = mPendingBytes;
+        while (available < frameBytes) {
+            int read = mInput.read(mBytes, available, wanted - available);
+            if (read < 0) {
+                return -1;
+            }
+            available += read;
+        }
+
+        int samples = available / frameBytes;
+        for (int i = 0; i < samples; i++) {
+            int sum = 0;
+            for (int c = 0; c < mChannels; c++) {
+                int index = i * frameBytes + c * BYTES_PER_SAMPLE;
+                sum += (short) ((mBytes[index] & 0xff) | (mBytes[index + 1] << 8));
+            }
+            buffer[offset + i] = (short) (sum / mChannels);
+        }
+
+        mPendingBytes = available - samples * frameBytes;
+        if (mPendingBytes > 0) {
+            System.arraycopy(mBytes, samples * frameBytes, mBytes, 0, mPendingBytes);
+        }
+
+        return samples;
+    }
+
+    @Override
+    public void close() {
+        if (mInput != null) {
+            try {
+                mInput.close();
+
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            mInput = null;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.mozilla.speechlibrary.batch;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Called from the worker threads as files complete, implementations must be thread safe.
+ */
+public interface BatchCallback {
+    void onFileTranscribed(@NonNull BatchResult result);
+    void onBatchFinished(@NonNull BatchStats stats);
+}
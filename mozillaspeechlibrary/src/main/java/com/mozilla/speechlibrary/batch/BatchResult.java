@@ -0,0 +1,44 @@
+package com.mozilla.speechlibrary.batch;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+
+public class BatchResult {
+
+    @NonNull
+    public final File mFile;
+    @Nullable
+    public final String mTranscription;
+    @Nullable
+    public final String mError;
+    public final long mAudioDurationMs;
+    public final long mDecodeTimeMs;
+    public final int mWorker;
+
+    BatchResult(@NonNull File file,
+                @Nullable String transcription,
+                @Nullable String error,
+                long audioDurationMs,
+                long decodeTimeMs,
+                int worker) {
+        mFile = file;
+        mTranscription = transcription;
+        mError = error;
+        mAudioDurationMs = audioDurationMs;
+        mDecodeTimeMs = decodeTimeMs;
+        mWorker = worker;
+    }
+
+    public boolean isSuccess() {
+        return mError == null;
+    }
+
+    /**
+     * Decode time divided by audio duration, below one means faster than real time.
+     */
+    public double getRealTimeFactor() {
+        return mAudioDurationMs > 0 ? (double) mDecodeTimeMs / mAudioDurationMs : 0;
+    }
+}
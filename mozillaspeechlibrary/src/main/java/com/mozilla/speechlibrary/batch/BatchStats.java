@@ -0,0 +1,35 @@
+package com.mozilla.speechlibrary.batch;
+
+public class BatchStats {
+
+    public final int mFiles;
+    public final int mFailures;
+    public final int mWorkers;
+    public final long mAudioDurationMs;
+    public final long mModelLoadTimeMs;
+    public final long mWallTimeMs;
+    public final boolean mCancelled;
+
+    BatchStats(int files,
+               int failures,
+               int workers,
+               long audioDurationMs,
+               long modelLoadTimeMs,
+               long wallTimeMs,
+               boolean cancelled) {
+        mFiles = files;
+        mFailures = failures;
+        mWorkers = workers;
+        mAudioDurationMs = audioDurationMs;
+        mModelLoadTimeMs = modelLoadTimeMs;
+        mWallTimeMs = wallTimeMs;
+        mCancelled = cancelled;
+    }
+
+    /**
+     * Seconds of audio transcribed per wall clock second across all workers.
+     */
+    public double getThroughput() {
+        return mWallTimeMs > 0 ? (double) mAudioDurationMs / mWallTimeMs : 0;
+    }
+}
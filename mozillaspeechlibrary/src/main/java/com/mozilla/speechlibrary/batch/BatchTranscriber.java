@@ -0,0 +1,270 @@
+package com.mozilla.speechlibrary.batch;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.mozilla.speechlibrary.audio.AudioSource;
+import com.mozilla.speechlibrary.audio.AudioSources;
+import com.mozilla.speechlibrary.model.ModelBackend;
+import com.mozilla.speechlibrary.model.DecoderConfig;
+import com.mozilla.speechlibrary.model.ModelCache;
+import com.mozilla.speechlibrary.model.ModelStream;
+import com.mozilla.speechlibrary.utils.ModelUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transcribes recorded audio files offline with a local DeepSpeech model. Every worker thread
+ * loads its own model instance and decodes one file at a time through its own stream, as the
+ * tflite interpreter can't be shared between concurrently running streams.
+ */
+public class BatchTranscriber {
+
+    private static final String TAG = BatchTranscriber.class.getSimpleName();
+
+    private static final int SAMPLE_RATE = 16000;
+    // One second of audio per feedAudioContent call
+    private static final int READ_BUFFER_SIZE = SAMPLE_RATE;
+
+    private Context mContext;
+    private String mModelPath;
+    @NonNull
+    private ModelCache mCache;
+
+    public BatchTranscriber(@NonNull Context context, @NonNull String modelPath) {
+        this(context, modelPath, ModelCache.getInstance());
+    }
+
+    BatchTranscriber(@NonNull Context context, @NonNull String modelPath, @NonNull ModelCache cache) {
+        mContext = context;
+        mModelPath = modelPath;
+        mCache = cache;
+    }
+
+    public static int defaultParallelism() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    @NonNull
+    public Job transcribeDirectory(@NonNull File directory, int parallelism, @NonNull BatchCallback callback) {
+        File[] files = directory.listFiles(file -> file.isFile() && AudioSources.isSupported(file));
+        List<File> list = files != null ? new ArrayList<>(Arrays.asList(files)) : new ArrayList<>();
+        Collections.sort(list);
+
+        return transcribe(list, parallelism, callback);
+    }
+
+    /**
+     * Starts transcribing the given files using up to {@code parallelism} workers, results are
+     * delivered through the callback as soon as each file completes.
+     */
+    @NonNull
+    public Job transcribe(@NonNull List<File> files, int parallelism, @NonNull BatchCallback callback) {
+        int workers = Math.max(1, Math.min(parallelism, files.size()));
+        Job job = new Job(files, workers, callback);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        job.mExecutor = Executors.newFixedThreadPool(workers,
+                runnable -> new Thread(runnable, "Batch STT " + threadCount.incrementAndGet()));
+        for (int i = 0; i < workers; i++) {
+            final int worker = i;
+            job.mExecutor.submit(() -> runWorker(worker, job));
+        }
+        job.mExecutor.shutdown();
+
+        return job;
+    }
+
+    private void runWorker(int worker, @NonNull Job job) {
+        ModelBackend model = null;
+
+        try {
+            if (!job.mCancelled && !job.mPending.isEmpty()) {
+                long loadStart = System.nanoTime();
+                model = loadModel();
+                // The workers load at the same time
+                long loadMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - loadStart);
+                job.mModelLoadTimeMs.accumulateAndGet(loadMs, Math::max);
+
+                short[] buffer = new short[READ_BUFFER_SIZE];
+                File file;
+                while (!job.mCancelled && (file = job.mPending.poll()) != null) {
+                    job.deliver(transcribe(model, file, buffer, worker));
+                }
+            }
+
+        } catch (Exception e) {
+            Log.e(TAG, "Batch worker " + worker + " failed", e);
+
+        } finally {
+            if (model != null) {
+                model.free();
+            }
+            job.workerFinished();
+        }
+    }
+
+    @NonNull
+    private ModelBackend loadModel() throws IOException {
+        if (!ModelUtils.isReady(mModelPath)) {
+            throw new IOException("Model not ready: " + mModelPath);
+        }
+
+        ModelBackend model = mCache.loadUncached(mModelPath);
+        String scorerPath = DecoderConfig.forModelRoot(mModelPath).getScorerPath();
+        if (scorerPath != null) {
+            try {
+                model.enableExternalScorer(scorerPath);
+
+            } catch (RuntimeException e) {
+                model.free();
+                throw new IOException("Error loading scorer " + scorerPath, e);
+            }
+        }
+
+        return model;
+    }
+
+    @NonNull
+    private BatchResult transcribe(@NonNull ModelBackend model,
+                                   @NonNull File file,
+                                   @NonNull short[] buffer,
+                                   int worker) {
+        AudioSource source = AudioSources.forFile(mContext, file);
+        if (source == null) {
+            return new BatchResult(file, null, "Unsupported file type", 0, 0, worker);
+        }
+
+        long start = System.nanoTime();
+        long samples = 0;
+        ModelStream stream = null;
+
+        try {
+            source.open();
+            if (source.getSampleRate() != SAMPLE_RATE || source.getChannels() != 1) {
+                return new BatchResult(file, null, "Unsupported audio format: " +
+                        source.getSampleRate() + "Hz " + source.getChannels() + "ch", 0, 0, worker);
+            }
+
+            stream = model.createStream();
+            int read;
+            while ((read = source.read(buffer, 0, buffer.length)) >= 0) {
+                if (read > 0) {
+                    stream.feedAudioContent(buffer, read);
+                    samples += read;
+                }
+            }
+            String transcription = stream.finishStream();
+            stream = null;
+
+            return new BatchResult(
+                    file,
+                    transcription,
+                    null,
+                    samples * 1000 / SAMPLE_RATE,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    worker);
+
+        } catch (Exception e) {
+            return new BatchResult(file, null, "Error: " + e.getMessage(), 0, 0, worker);
+
+        } finally {
+            if (stream != null) {
+                stream.freeStream();
+            }
+            source.close();
+        }
+    }
+
+    public static class Job {
+
+        private final Queue<File> mPending;
+        private final BatchCallback mCallback;
+        private final int mWorkers;
+        private final AtomicInteger mRunningWorkers;
+        private final AtomicInteger mFiles;
+        private final AtomicInteger mFailures;
+        private final AtomicLong mAudioDurationMs;
+        private final AtomicLong mModelLoadTimeMs;
+        private final CountDownLatch mDone;
+        private final long mStartTime;
+        private ExecutorService mExecutor;
+        private volatile boolean mCancelled;
+
+        Job(@NonNull List<File> files, int workers, @NonNull BatchCallback callback) {
+            mPending = new ConcurrentLinkedQueue<>(files);
+            mCallback = callback;
+            mWorkers = workers;
+            mRunningWorkers = new AtomicInteger(workers);
+            mFiles = new AtomicInteger();
+            mFailures = new AtomicInteger();
+            mAudioDurationMs = new AtomicLong();
+            mModelLoadTimeMs = new AtomicLong();
+            mDone = new CountDownLatch(1);
+            mStartTime = System.nanoTime();
+        }
+
+        /**
+         * Stops handing out new files, the files being decoded still complete.
+         */
+        public void cancel() {
+            mCancelled = true;
+        }
+
+        public boolean isDone() {
+            return mDone.getCount() == 0;
+        }
+
+        public boolean await(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+            return mDone.await(timeout, unit);
+        }
+
+        private void deliver(@NonNull BatchResult result) {
+            mFiles.incrementAndGet();
+            if (result.isSuccess()) {
+                mAudioDurationMs.addAndGet(result.mAudioDurationMs);
+
+            } else {
+                mFailures.incrementAndGet();
+            }
+            mCallback.onFileTranscribed(result);
+        }
+
+        private void workerFinished() {
+            if (mRunningWorkers.decrementAndGet() > 0) {
+                return;
+            }
+
+            // Every worker failed to load the model, report what was left
+            File file;
+            while (!mCancelled && (file = mPending.poll()) != null) {
+                deliver(new BatchResult(file, null, "No worker available", 0, 0, -1));
+            }
+
+            mCallback.onBatchFinished(new BatchStats(
+                    mFiles.get(),
+                    mFailures.get(),
+                    mWorkers,
+                    mAudioDurationMs.get(),
+                    mModelLoadTimeMs.get(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - mStartTime),
+                    mCancelled));
+            mDone.countDown();
+        }
+    }
+}
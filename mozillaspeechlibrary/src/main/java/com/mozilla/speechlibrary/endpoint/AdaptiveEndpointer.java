@@ -0,0 +1,129 @@
+package com.mozilla.speechlibrary.endpoint;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Endpointer that shortens the trailing silence hangover when the room is quiet. It tracks the
+ * ambient noise floor, the speech level and how often the VAD flips between frames, the clearer
+ * the separation between speech and background the sooner a settled silence ends the utterance.
+ * In noise the hangover stays at the configured maximum.
+ */
+public class AdaptiveEndpointer extends Endpointer {
+
+    // Speech to noise ratios mapped to the shortest and to the longest hangover
+    private static final double QUIET_SNR_DB = 30;
+    private static final double NOISY_SNR_DB = 10;
+    // Silence frames this much above the noise floor aren't considered settled
+    private static final double SETTLED_MARGIN_DB = 6;
+    // The floor follows drops quickly and rises slowly so speech doesn't drag it up
+    private static final double FLOOR_FALL = 0.3;
+    private static final double FLOOR_RISE = 0.01;
+    private static final double SPEECH_SMOOTHING = 0.1;
+    private static final double FLIP_SMOOTHING = 0.05;
+    // VAD decision flips per frame at which the room is considered noisy regardless of level
+    private static final double NOISY_FLIP_RATE = 0.25;
+
+    private final long mMinSilenceSamples;
+    private final long mMaxSilenceSamples;
+
+    private double mNoiseFloorDb;
+    private double mSpeechLevelDb;
+    private double mFlipRate;
+    private boolean mLastVoice;
+    private long mSettledSilenceSamples;
+
+    public AdaptiveEndpointer(int sampleRate,
+                              int minVoiceMs,
+                              int minSilenceMs,
+                              int maxSilenceMs,
+                              int maxDurationMs) {
+        super(sampleRate, minVoiceMs, maxSilenceMs, maxDurationMs);
+
+        mMinSilenceSamples = msToSamples(Math.min(minSilenceMs, maxSilenceMs));
+        mMaxSilenceSamples = msToSamples(maxSilenceMs);
+        mNoiseFloorDb = Double.NaN;
+        mSpeechLevelDb = Double.NaN;
+    }
+
+    @Override
+    void onFrame(boolean isVoice, int samples, double levelDb) {
+        mFlipRate += FLIP_SMOOTHING * ((isVoice != mLastVoice ? 1 : 0) - mFlipRate);
+        mLastVoice = isVoice;
+
+        if (Double.isNaN(levelDb)) {
+            mSettledSilenceSamples = 0;
+            return;
+        }
+
+        if (isVoice) {
+            mSpeechLevelDb = Double.isNaN(mSpeechLevelDb) ?
+                    levelDb : mSpeechLevelDb + SPEECH_SMOOTHING * (levelDb - mSpeechLevelDb);
+            mSettledSilenceSamples = 0;
+
+        } else {
+            if (Double.isNaN(mNoiseFloorDb)) {
+                mNoiseFloorDb = levelDb;
+
+            } else {
+                double rate = levelDb < mNoiseFloorDb ? FLOOR_FALL : FLOOR_RISE;
+                mNoiseFloorDb += rate * (levelDb - mNoiseFloorDb);
+            }
+
+            if (levelDb <= mNoiseFloorDb + SETTLED_MARGIN_DB) {
+                mSettledSilenceSamples += samples;
+
+            } else {
+                mSettledSilenceSamples = 0;
+            }
+        }
+    }
+
+    @NonNull
+    @Override
+    EndpointReason checkSilence(long silenceSamples) {
+        long hangover = getHangoverSamples();
+        if (hangover < mMaxSilenceSamples && Math.min(silenceSamples, mSettledSilenceSamples) > hangover) {
+            return EndpointReason.ADAPTIVE_SILENCE;
+        }
+
+        return EndpointReason.NONE;
+    }
+
+    /**
+     * Noise statistics carry over to the next utterance, the room rarely changes between them.
+     */
+    @Override
+    public void reset() {
+        super.reset();
+        mSettledSilenceSamples = 0;
+    }
+
+    long getHangoverSamples() {
+        if (Double.isNaN(mNoiseFloorDb) || Double.isNaN(mSpeechLevelDb)) {
+            return mMaxSilenceSamples;
+        }
+
+        double snr = mSpeechLevelDb - mNoiseFloorDb;
+        double noisiness = clamp((QUIET_SNR_DB - snr) / (QUIET_SNR_DB - NOISY_SNR_DB));
+        double flicker = clamp(mFlipRate / NOISY_FLIP_RATE);
+        noisiness += (1 - noisiness) * flicker;
+
+        return mMinSilenceSamples + Math.round((mMaxSilenceSamples - mMinSilenceSamples) * noisiness);
+    }
+
+    public long getHangoverMs() {
+        return samplesToMs(getHangoverSamples());
+    }
+
+    public double getNoiseFloorDb() {
+        return mNoiseFloorDb;
+    }
+
+    public double getSpeechLevelDb() {
+        return mSpeechLevelDb;
+    }
+
+    private static double clamp(double value) {
+        return Math.max(0, Math.min(1, value));
+    }
+}
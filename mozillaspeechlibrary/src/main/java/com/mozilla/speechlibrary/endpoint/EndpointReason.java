@@ -0,0 +1,13 @@
+package com.mozilla.speechlibrary.endpoint;
+
+public enum EndpointReason {
+    NONE,
+    // Trailing silence reached the maximum hangover
+    SILENCE,
+    // Trailing silence reached the hangover adapted to the room noise
+    ADAPTIVE_SILENCE,
+    // Short silence and the transcript stopped changing
+    STABLE_HYPOTHESIS,
+    MAX_DURATION,
+    NO_VOICE
+}
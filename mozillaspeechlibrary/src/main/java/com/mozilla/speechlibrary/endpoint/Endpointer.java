@@ -0,0 +1,178 @@
+package com.mozilla.speechlibrary.endpoint;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Decides when an utterance is over by counting the samples it is fed instead of reading a
+ * clock, so the same audio always ends at the same place whether it comes from the microphone,
+ * from a file read faster than real time or from a device that stalled for a while.
+ */
+public class Endpointer {
+
+    private final int mSampleRate;
+    private final long mMinVoiceSamples;
+    private final long mMaxSilenceSamples;
+    private final long mMaxSamples;
+
+    private long mSamples;
+    private long mVoiceSamples;
+    private long mSilenceSamples;
+    private boolean mTouchedVoice;
+    @NonNull
+    private EndpointReason mReason;
+
+    public Endpointer(int sampleRate, int minVoiceMs, int maxSilenceMs, int maxDurationMs) {
+        mSampleRate = sampleRate;
+        mMinVoiceSamples = msToSamples(minVoiceMs);
+        mMaxSilenceSamples = msToSamples(maxSilenceMs);
+        mMaxSamples = msToSamples(maxDurationMs);
+        mReason = EndpointReason.NONE;
+    }
+
+    /**
+     * Accounts for a frame of {@code samples} samples per channel.
+     *
+     * @return true once the utterance is over, {@link #getReason()} tells why.
+     */
+    public boolean feed(boolean isVoice, int samples) {
+        return feed(isVoice, samples, Double.NaN);
+    }
+
+    /**
+     * Accounts for a mono frame, its level is measured for endpointers that track it.
+     */
+    public boolean feed(boolean isVoice, @NonNull short[] buffer, int length) {
+        return feed(isVoice, length, levelDb(buffer, length));
+    }
+
+    boolean feed(boolean isVoice, int samples, double levelDb) {
+        if (isDone() || samples <= 0) {
+            return isDone();
+        }
+
+        mSamples += samples;
+        onFrame(isVoice, samples, levelDb);
+
+        if (isVoice) {
+            mVoiceSamples += samples;
+            mSilenceSamples = 0;
+            if (mVoiceSamples > mMinVoiceSamples) {
+                mTouchedVoice = true;
+            }
+
+        } else {
+            mSilenceSamples += samples;
+        }
+
+        if (!isVoice && mTouchedVoice) {
+            if (mSilenceSamples > mMaxSilenceSamples) {
+                mReason = EndpointReason.SILENCE;
+                return true;
+            }
+
+            EndpointReason reason = checkSilence(mSilenceSamples);
+            if (reason != EndpointReason.NONE) {
+                mReason = reason;
+                return true;
+            }
+        }
+
+        if (mSamples > mMaxSamples) {
+            mReason = mTouchedVoice ? EndpointReason.MAX_DURATION : EndpointReason.NO_VOICE;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Called for every frame before the default rules run.
+     */
+    void onFrame(boolean isVoice, int samples, double levelDb) {}
+
+    /**
+     * Lets subclasses end the utterance before the maximum trailing silence is reached.
+     */
+    @NonNull
+    EndpointReason checkSilence(long silenceSamples) {
+        return EndpointReason.NONE;
+    }
+
+    /**
+     * Ends the utterance for a reason found outside of the endpointer, only once it has voice.
+     *
+     * @return true if the utterance is over.
+     */
+    public boolean end(@NonNull EndpointReason reason) {
+        if (!isDone() && mTouchedVoice) {
+            mReason = reason;
+        }
+        return isDone();
+    }
+
+    public void reset() {
+        mSamples = 0;
+        mVoiceSamples = 0;
+        mSilenceSamples = 0;
+        mTouchedVoice = false;
+        mReason = EndpointReason.NONE;
+    }
+
+    public boolean isDone() {
+        return mReason != EndpointReason.NONE;
+    }
+
+    @NonNull
+    public EndpointReason getReason() {
+        return mReason;
+    }
+
+    public boolean hasVoice() {
+        return mTouchedVoice;
+    }
+
+    public long getElapsedMs() {
+        return samplesToMs(mSamples);
+    }
+
+    public long getVoiceMs() {
+        return samplesToMs(mVoiceSamples);
+    }
+
+    /**
+     * Silence since the last voice frame, counted even before the voice was long enough to
+     * start the utterance so false starts can be told apart.
+     */
+    public long getTrailingSilenceMs() {
+        return samplesToMs(mSilenceSamples);
+    }
+
+    public int getSampleRate() {
+        return mSampleRate;
+    }
+
+    long msToSamples(long ms) {
+        return ms * mSampleRate / 1000;
+    }
+
+    long samplesToMs(long samples) {
+        return samples * 1000 / mSampleRate;
+    }
+
+    /**
+     * Root mean square level of the frame relative to full scale.
+     */
+    static double levelDb(@NonNull short[] buffer, int length) {
+        if (length <= 0) {
+            return Double.NaN;
+        }
+
+        long sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += buffer[i] * buffer[i];
+        }
+        double rms = Math.sqrt((double) sum / length) / Short.MAX_VALUE;
+
+        return 20 * Math.log10(Math.max(rms, 1e-6));
+    }
+}
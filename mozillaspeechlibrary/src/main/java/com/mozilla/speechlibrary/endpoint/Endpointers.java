@@ -0,0 +1,27 @@
+package com.mozilla.speechlibrary.endpoint;
+
+import androidx.annotation.NonNull;
+
+import com.mozilla.speechlibrary.SpeechServiceSettings;
+
+public class Endpointers {
+
+    @NonNull
+    public static Endpointer fromSettings(@NonNull SpeechServiceSettings settings, int sampleRate) {
+        if (settings.useAdaptiveEndpointing()) {
+            return new AdaptiveEndpointer(
+                    sampleRate,
+                    settings.getMinVoiceMs(),
+                    settings.getMinSilenceMs(),
+                    settings.getMaxSilenceMs(),
+                    settings.getMaxDurationMs());
+
+        } else {
+            return new Endpointer(
+                    sampleRate,
+                    settings.getMinVoiceMs(),
+                    settings.getMaxSilenceMs(),
+                    settings.getMaxDurationMs());
+        }
+    }
+}
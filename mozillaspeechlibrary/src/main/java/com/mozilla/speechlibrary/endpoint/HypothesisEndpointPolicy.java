@@ -0,0 +1,61 @@
+package com.mozilla.speechlibrary.endpoint;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Ends an utterance before the silence hangover once the decoder agrees it's over: the VAD
+ * heard a short silence and the transcript, decoded past the start of that silence, hasn't
+ * changed for the stability window. A transcript matching one of the command phrases doesn't
+ * need the window.
+ */
+public class HypothesisEndpointPolicy {
+
+    private final int mMinSilenceMs;
+    private final int mStabilityWindowMs;
+    private final Set<String> mPhrases = new HashSet<>();
+
+    public HypothesisEndpointPolicy(int minSilenceMs, int stabilityWindowMs, @NonNull Collection<String> phrases) {
+        mMinSilenceMs = minSilenceMs;
+        mStabilityWindowMs = stabilityWindowMs;
+        for (String phrase : phrases) {
+            mPhrases.add(normalize(phrase));
+        }
+    }
+
+    /**
+     * Positions are in ms of utterance audio, counted like the endpointer's elapsed time.
+     *
+     * @param text the last transcript decoded, null if none yet.
+     * @param checkedMs audio position the transcript was decoded at.
+     * @param changedMs audio position the transcript last changed at.
+     */
+    public boolean isOver(@NonNull Endpointer endpointer, @Nullable String text, long checkedMs, long changedMs) {
+        if (!endpointer.hasVoice() || endpointer.isDone() || text == null || text.isEmpty()) {
+            return false;
+        }
+
+        long silenceMs = endpointer.getTrailingSilenceMs();
+        if (silenceMs < mMinSilenceMs) {
+            return false;
+        }
+
+        // The decoder has to have heard the silence, otherwise the last words may be missing
+        long silenceOnsetMs = endpointer.getElapsedMs() - silenceMs;
+        if (checkedMs < silenceOnsetMs) {
+            return false;
+        }
+
+        return mPhrases.contains(normalize(text)) || checkedMs - changedMs >= mStabilityWindowMs;
+    }
+
+    @NonNull
+    private static String normalize(@NonNull String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,58 @@
+package com.mozilla.speechlibrary.engine;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.mozilla.speechlibrary.SpeechServiceSettings;
+import com.mozilla.speechlibrary.model.CachedModel;
+import com.mozilla.speechlibrary.model.ModelCache;
+import com.mozilla.speechlibrary.stt.STTClient;
+import com.mozilla.speechlibrary.stt.STTClientCallback;
+import com.mozilla.speechlibrary.stt.STTLocalClient;
+import com.mozilla.speechlibrary.utils.ModelUtils;
+
+import java.io.IOException;
+
+public class DeepSpeechEngine implements STTEngine {
+
+    public static final String ID = "deepspeech";
+
+    @NonNull
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public boolean isAvailable(@NonNull SpeechServiceSettings settings) {
+        return ModelUtils.isReady(settings.getModelPath());
+    }
+
+    @Override
+    public long load(@NonNull Context context, @NonNull SpeechServiceSettings settings) throws IOException {
+        String modelPath = settings.getModelPath();
+        if (modelPath == null) {
+            throw new IOException("No model path");
+        }
+
+        CachedModel cached = ModelCache.getInstance().acquire(modelPath);
+        try {
+            return cached.getLoadTimeMs();
+
+        } finally {
+            cached.release();
+        }
+    }
+
+    @NonNull
+    @Override
+    public STTClient createClient(@NonNull Context context,
+                                  @NonNull SpeechServiceSettings settings,
+                                  @NonNull STTClientCallback callback) {
+        STTLocalClient client = new STTLocalClient(context, settings, callback);
+        Thread sttThread = new Thread(client, "STT Thread");
+        sttThread.start();
+        return client;
+    }
+}
@@ -0,0 +1,204 @@
+package com.mozilla.speechlibrary.engine;
+
+import android.content.Context;
+import android.os.Process;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.mozilla.speechlibrary.SpeechServiceSettings;
+import com.mozilla.speechlibrary.stt.STTClient;
+import com.mozilla.speechlibrary.stt.STTClientCallback;
+import com.mozilla.speechlibrary.stt.STTResult;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the real-time factor and load time of the engines on this device, through the same
+ * {@link STTClient} calls a session makes. The results are stored in {@link EngineScores}.
+ */
+public class EngineBenchmark {
+
+    private static final String TAG = EngineBenchmark.class.getSimpleName();
+
+    private static final int SAMPLE_RATE = 16000;
+    private static final int FRAME_SIZE = 320;
+    private static final long MIN_TIMEOUT_MS = 30000;
+
+    @NonNull
+    private final Context mContext;
+    @NonNull
+    private final EngineRegistry mRegistry;
+    @NonNull
+    private final EngineScores mScores;
+    private ExecutorService mExecutor;
+
+    public EngineBenchmark(@NonNull Context context, @NonNull EngineRegistry registry, @NonNull EngineScores scores) {
+        mContext = context;
+        mRegistry = registry;
+        mScores = scores;
+    }
+
+    /**
+     * Measures in the background the available engines that have no result for the settings
+     * language yet. The beam search cost depends on what is said, so the audio has to be speech
+     * in that language for the scores to be worth keeping.
+     *
+     * @param audio 16kHz mono recording of speech.
+     * @param expected transcription of the audio, to measure the word error rate.
+     */
+    public synchronized void runMissing(@NonNull SpeechServiceSettings settings,
+                                        @NonNull short[] audio,
+                                        @Nullable String expected) {
+        if (mExecutor == null) {
+            mExecutor = Executors.newSingleThreadExecutor();
+        }
+        mExecutor.submit(() -> {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            for (STTEngine engine : mRegistry.getAvailable(settings)) {
+                if (mScores.get(engine.getId(), settings.getLanguage()) != null) {
+                    continue;
+                }
+                try {
+                    mScores.put(run(engine, settings, audio, expected));
+
+                } catch (IOException e) {
+                    Log.e(TAG, "Benchmark of " + engine.getId() + " failed: " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Loads the engine and decodes the audio with it, blocking.
+     *
+     * @param audio 16kHz mono.
+     * @param expected transcription of the audio, to measure the word error rate.
+     */
+    @NonNull
+    public EngineScore run(@NonNull STTEngine engine,
+                           @NonNull SpeechServiceSettings settings,
+                           @NonNull short[] audio,
+                           @Nullable String expected) throws IOException {
+        long loadMs = engine.load(mContext, settings);
+
+        CountDownLatch done = new CountDownLatch(1);
+        String[] transcription = new String[1];
+        String[] error = new String[1];
+        STTClientCallback callback = new STTClientCallback() {
+            @Override
+            public void onSTTStart() {}
+
+            @Override
+            public void onSTTError(@NonNull String aError) {
+                error[0] = aError;
+                done.countDown();
+            }
+
+            @Override
+            public void onSTTFinished(@NonNull STTResult result) {
+                transcription[0] = result.mTranscription;
+                done.countDown();
+            }
+        };
+
+        long audioMs = audio.length * 1000L / SAMPLE_RATE;
+        long timeoutMs = Math.max(MIN_TIMEOUT_MS, audioMs * 10);
+        STTClient client = engine.createClient(mContext, settings, callback);
+        long start;
+        try {
+            // Audio encoded while the client loads is buffered up to its queue capacity only,
+            // and the load isn't part of the decoding time
+            if (!client.awaitReady(timeoutMs, TimeUnit.MILLISECONDS)) {
+                client.cancel();
+                throw new IOException("Timed out loading");
+            }
+            if (error[0] != null) {
+                throw new IOException(error[0]);
+            }
+
+            start = System.nanoTime();
+            client.initEncoding(SAMPLE_RATE);
+            for (int offset = 0; offset < audio.length; offset += FRAME_SIZE) {
+                client.encode(audio, offset, Math.min(FRAME_SIZE, audio.length - offset));
+            }
+            client.endEncoding();
+            client.process();
+
+            if (!done.await(timeoutMs, TimeUnit.MILLISECONDS)) {
+                client.cancel();
+                throw new IOException("Timed out");
+            }
+
+        } catch (InterruptedException e) {
+            client.cancel();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted");
+        }
+        if (error[0] != null) {
+            throw new IOException(error[0]);
+        }
+        long droppedMs = client.getDroppedMs();
+        if (droppedMs > 0) {
+            throw new IOException(droppedMs + "ms of the audio weren't decoded");
+        }
+
+        // Nothing was dropped, the whole audio was decoded
+        float realTimeFactor = (System.nanoTime() - start) / 1e6f / Math.max(1, audioMs);
+        float wordErrorRate = expected != null && transcription[0] != null ?
+                wordErrorRate(expected, transcription[0]) : -1;
+        EngineScore score = new EngineScore(engine.getId(), settings.getLanguage(),
+                realTimeFactor, loadMs, wordErrorRate, System.currentTimeMillis());
+        Log.d(TAG, score.toString());
+
+        return score;
+    }
+
+    public synchronized void shutdown() {
+        if (mExecutor != null) {
+            mExecutor.shutdown();
+            mExecutor = null;
+        }
+    }
+
+    /**
+     * Word level edit distance over the number of expected words, case is ignored.
+     */
+    static float wordErrorRate(@NonNull String expected, @NonNull String actual) {
+        String[] reference = words(expected);
+        String[] hypothesis = words(actual);
+        if (reference.length == 0) {
+            return hypothesis.length == 0 ? 0 : 1;
+        }
+
+        int[] previous = new int[hypothesis.length + 1];
+        int[] current = new int[hypothesis.length + 1];
+        for (int j = 0; j <= hypothesis.length; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= reference.length; i++) {
+            current[0] = i;
+            for (int j = 1; j <= hypothesis.length; j++) {
+                int substitution = previous[j - 1] + (reference[i - 1].equals(hypothesis[j - 1]) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        return (float) previous[hypothesis.length] / reference.length;
+    }
+
+    @NonNull
+    private static String[] words(@NonNull String text) {
+        String trimmed = text.trim().toLowerCase(Locale.ROOT);
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("\\s+");
+    }
+}
@@ -0,0 +1,139 @@
+package com.mozilla.speechlibrary.engine;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.mozilla.speechlibrary.SpeechServiceSettings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Offline engines local recognition can run on, DeepSpeech is registered by default. For each
+ * session the fastest engine that is adequate on this device is picked, by the
+ * {@link EngineBenchmark} results of the session language.
+ */
+public class EngineRegistry {
+
+    // Leaves room for the rest of the pipeline while keeping up with the microphone
+    public static final float MAX_REAL_TIME_FACTOR = 0.8f;
+    public static final float MAX_WORD_ERROR_RATE = 0.3f;
+
+    private static final EngineRegistry sInstance = new EngineRegistry();
+
+    private final CopyOnWriteArrayList<STTEngine> mEngines = new CopyOnWriteArrayList<>();
+
+    EngineRegistry() {
+        mEngines.add(new DeepSpeechEngine());
+    }
+
+    @NonNull
+    public static EngineRegistry getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * Adds an engine, or replaces the one with the same id. Without benchmark results, engines
+     * are preferred in the order they were registered.
+     */
+    public void register(@NonNull STTEngine engine) {
+        unregister(engine.getId());
+        mEngines.add(engine);
+    }
+
+    public void unregister(@NonNull String engineId) {
+        mEngines.removeIf(engine -> engine.getId().equals(engineId));
+    }
+
+    @Nullable
+    public STTEngine getEngine(@NonNull String engineId) {
+        for (STTEngine engine : mEngines) {
+            if (engine.getId().equals(engineId)) {
+                return engine;
+            }
+        }
+        return null;
+    }
+
+    @NonNull
+    public List<STTEngine> getEngines() {
+        return new ArrayList<>(mEngines);
+    }
+
+    /**
+     * Engines available for the settings.
+     */
+    @NonNull
+    public List<STTEngine> getAvailable(@NonNull SpeechServiceSettings settings) {
+        List<STTEngine> available = new ArrayList<>();
+        for (STTEngine engine : mEngines) {
+            if (engine.isAvailable(settings)) {
+                available.add(engine);
+            }
+        }
+        return available;
+    }
+
+    /**
+     * The available engine with the lowest real-time factor among the adequate ones. If none is
+     * adequate, the first one not measured yet, then the fastest one.
+     *
+     * @param scores the results for the settings language.
+     * @return null if no engine is available.
+     */
+    @Nullable
+    public STTEngine select(@NonNull SpeechServiceSettings settings, @NonNull List<EngineScore> scores) {
+        STTEngine fastest = null;
+        EngineScore fastestScore = null;
+        STTEngine unmeasured = null;
+        STTEngine adequate = null;
+        EngineScore adequateScore = null;
+
+        for (STTEngine engine : getAvailable(settings)) {
+            EngineScore score = find(scores, engine.getId());
+            if (score == null) {
+                if (unmeasured == null) {
+                    unmeasured = engine;
+                }
+                continue;
+            }
+
+            if (fastestScore == null || faster(score, fastestScore)) {
+                fastest = engine;
+                fastestScore = score;
+            }
+            if (isAdequate(score) && (adequateScore == null || faster(score, adequateScore))) {
+                adequate = engine;
+                adequateScore = score;
+            }
+        }
+
+        if (adequate != null) {
+            return adequate;
+        }
+        return unmeasured != null ? unmeasured : fastest;
+    }
+
+    static boolean isAdequate(@NonNull EngineScore score) {
+        return score.mRealTimeFactor <= MAX_REAL_TIME_FACTOR &&
+                (score.mWordErrorRate < 0 || score.mWordErrorRate <= MAX_WORD_ERROR_RATE);
+    }
+
+    private static boolean faster(@NonNull EngineScore score, @NonNull EngineScore other) {
+        if (score.mRealTimeFactor != other.mRealTimeFactor) {
+            return score.mRealTimeFactor < other.mRealTimeFactor;
+        }
+        return score.mLoadMs < other.mLoadMs;
+    }
+
+    @Nullable
+    private static EngineScore find(@NonNull List<EngineScore> scores, @NonNull String engineId) {
+        for (EngineScore score : scores) {
+            if (score.mEngineId.equals(engineId)) {
+                return score;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,58 @@
+package com.mozilla.speechlibrary.engine;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * How an engine performed on this device for a language.
+ */
+public class EngineScore {
+
+    @NonNull
+    public final String mEngineId;
+    @NonNull
+    public final String mLanguage;
+    // Decoding time over audio duration, under 1 keeps up with the microphone
+    public final float mRealTimeFactor;
+    public final long mLoadMs;
+    // Of the benchmark transcription, negative when the expected text wasn't known
+    public final float mWordErrorRate;
+    public final long mTimestamp;
+
+    public EngineScore(@NonNull String aEngineId, @NonNull String aLanguage, float aRealTimeFactor,
+                       long aLoadMs, float aWordErrorRate, long aTimestamp) {
+        this.mEngineId = aEngineId;
+        this.mLanguage = aLanguage;
+        this.mRealTimeFactor = aRealTimeFactor;
+        this.mLoadMs = aLoadMs;
+        this.mWordErrorRate = aWordErrorRate;
+        this.mTimestamp = aTimestamp;
+    }
+
+    @NonNull
+    String serialize() {
+        return mRealTimeFactor + ";" + mLoadMs + ";" + mWordErrorRate + ";" + mTimestamp;
+    }
+
+    @Nullable
+    static EngineScore parse(@NonNull String engineId, @NonNull String language, @NonNull String value) {
+        String[] fields = value.split(";");
+        if (fields.length != 4) {
+            return null;
+        }
+        try {
+            return new EngineScore(engineId, language, Float.parseFloat(fields[0]),
+                    Long.parseLong(fields[1]), Float.parseFloat(fields[2]), Long.parseLong(fields[3]));
+
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return String.format("%s %s: %.2f RTF, %dms load, %.2f WER",
+                mEngineId, mLanguage, mRealTimeFactor, mLoadMs, mWordErrorRate);
+    }
+}
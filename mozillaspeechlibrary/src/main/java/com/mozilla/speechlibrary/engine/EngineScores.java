@@ -0,0 +1,66 @@
+package com.mozilla.speechlibrary.engine;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Benchmark results kept across launches, an engine is only measured once for a language.
+ */
+public class EngineScores {
+
+    private static final String PREFS_NAME = "speechlibrary_engine_scores";
+    private static final String SEPARATOR = "|";
+
+    @NonNull
+    private final SharedPreferences mPreferences;
+
+    public EngineScores(@NonNull Context context) {
+        this(context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE));
+    }
+
+    EngineScores(@NonNull SharedPreferences preferences) {
+        mPreferences = preferences;
+    }
+
+    public void put(@NonNull EngineScore score) {
+        mPreferences.edit().putString(score.mEngineId + SEPARATOR + score.mLanguage, score.serialize()).apply();
+    }
+
+    @Nullable
+    public EngineScore get(@NonNull String engineId, @NonNull String language) {
+        String value = mPreferences.getString(engineId + SEPARATOR + language, null);
+        return value != null ? EngineScore.parse(engineId, language, value) : null;
+    }
+
+    @NonNull
+    public List<EngineScore> getAll(@NonNull String language) {
+        List<EngineScore> scores = new ArrayList<>();
+        for (Map.Entry<String, ?> entry : mPreferences.getAll().entrySet()) {
+            String key = entry.getKey();
+            int separator = key.lastIndexOf(SEPARATOR);
+            if (separator < 0 || !key.substring(separator + 1).equals(language) ||
+                    !(entry.getValue() instanceof String)) {
+                continue;
+            }
+            EngineScore score = EngineScore.parse(key.substring(0, separator), language, (String) entry.getValue());
+            if (score != null) {
+                scores.add(score);
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Forgets the results, for example after an engine update, so the engines are measured again.
+     */
+    public void clear() {
+        mPreferences.edit().clear().apply();
+    }
+}
@@ -0,0 +1,45 @@
+package com.mozilla.speechlibrary.engine;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.mozilla.speechlibrary.SpeechServiceSettings;
+import com.mozilla.speechlibrary.stt.STTClient;
+import com.mozilla.speechlibrary.stt.STTClientCallback;
+
+import java.io.IOException;
+
+/**
+ * An offline speech recognizer that can be registered in the {@link EngineRegistry}. Engines
+ * are stateless factories of {@link STTClient}s, one client per session.
+ */
+public interface STTEngine {
+
+    /**
+     * Stable name, the benchmark results are stored under it.
+     */
+    @NonNull
+    String getId();
+
+    /**
+     * Whether the engine has what it needs installed for the language and model of the settings.
+     */
+    boolean isAvailable(@NonNull SpeechServiceSettings settings);
+
+    /**
+     * Loads what the sessions with these settings need, blocking.
+     *
+     * @return how long loading took, or took when it was first loaded.
+     */
+    long load(@NonNull Context context, @NonNull SpeechServiceSettings settings) throws IOException;
+
+    /**
+     * Creates the client of a session, ready to be encoded to. Clients that decode on their own
+     * thread start it here.
+     */
+    @NonNull
+    STTClient createClient(@NonNull Context context,
+                           @NonNull SpeechServiceSettings settings,
+                           @NonNull STTClientCallback callback);
+}
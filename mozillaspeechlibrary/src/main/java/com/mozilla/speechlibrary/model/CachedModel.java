@@ -0,0 +1,194 @@
+package com.mozilla.speechlibrary.model;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A model borrowed from the {@link ModelCache}. Sessions create their own streams on it and
+ * call {@link #release()} when they are done instead of freeing the model.
+ * Inference on streams of the same model has to hold {@link #getInferenceLock()}.
+ */
+public class CachedModel {
+
+    private static final String TAG = CachedModel.class.getSimpleName();
+
+    @NonNull
+    private final ModelCache mCache;
+    @NonNull
+    final String mModelPath;
+    private final Object mInferenceLock = new Object();
+    volatile long mSizeBytes;
+    volatile boolean mWarmedUp;
+    // Set once loaded, cleared by the eviction, read by the sessions without the cache lock
+    volatile ModelBackend mModel;
+    int mRefCount;
+    long mLoadTimeMs;
+    // Decoder settings currently applied to the model, the next stream gets them
+    @Nullable
+    private volatile String mScorerPath;
+    private long mDefaultBeamWidth;
+    private long mBeamWidth;
+    @NonNull
+    private Map<String, Float> mHotWords = Collections.emptyMap();
+    private volatile int mSwitches;
+    private volatile long mSwitchNanos;
+    private volatile long mLastSwitchNanos;
+
+    CachedModel(@NonNull ModelCache cache, @NonNull String modelPath) {
+        mCache = cache;
+        mModelPath = modelPath;
+        mSizeBytes = new File(modelPath).length();
+    }
+
+    void onLoaded(@NonNull ModelBackend model) {
+        mModel = model;
+        mDefaultBeamWidth = model.beamWidth();
+        mBeamWidth = mDefaultBeamWidth;
+        mScorerPath = null;
+        mHotWords = Collections.emptyMap();
+    }
+
+    @NonNull
+    public ModelBackend getModel() {
+        return mModel;
+    }
+
+    @NonNull
+    public String getModelPath() {
+        return mModelPath;
+    }
+
+    /**
+     * Scorer of the last stream created, null if it had none.
+     */
+    @Nullable
+    public String getScorerPath() {
+        return mScorerPath;
+    }
+
+    /**
+     * Creates a stream decoding with the given settings. Only what differs from the previous
+     * stream is changed on the model, switching the scorer reads the new scorer file but the
+     * acoustic model stays loaded.
+     *
+     * @throws IOException if the scorer can't be loaded, the model is left without scorer.
+     */
+    @NonNull
+    public ModelStream createStream(@NonNull DecoderConfig config) throws IOException {
+        synchronized (mInferenceLock) {
+            long start = System.nanoTime();
+            if (apply(config)) {
+                mLastSwitchNanos = System.nanoTime() - start;
+                mSwitchNanos += mLastSwitchNanos;
+                mSwitches++;
+                Log.d(TAG, "Decoder switched to " + mScorerPath + ", beam " + mBeamWidth + ", " +
+                        mHotWords.size() + " hot-words in " + mLastSwitchNanos / 1000000 + "ms");
+            }
+            return mModel.createStream();
+        }
+    }
+
+    private boolean apply(@NonNull DecoderConfig config) throws IOException {
+        boolean switched = false;
+
+        String scorerPath = config.getScorerPath();
+        if (!Objects.equals(scorerPath, mScorerPath)) {
+            switched = true;
+            try {
+                if (scorerPath != null) {
+                    mModel.enableExternalScorer(scorerPath);
+
+                } else {
+                    mModel.disableExternalScorer();
+                }
+
+            } catch (RuntimeException e) {
+                mModel.disableExternalScorer();
+                mScorerPath = null;
+                mSizeBytes = new File(mModelPath).length();
+                throw new IOException("Error loading scorer " + scorerPath, e);
+            }
+            mScorerPath = scorerPath;
+            mSizeBytes = new File(mModelPath).length() + (scorerPath != null ? new File(scorerPath).length() : 0);
+        }
+
+        long beamWidth = config.getBeamWidth() > 0 ? config.getBeamWidth() : mDefaultBeamWidth;
+        if (beamWidth != mBeamWidth) {
+            switched = true;
+            mModel.setBeamWidth(beamWidth);
+            mBeamWidth = beamWidth;
+        }
+
+        // Hot-words need a scorer, without one they are left as they are
+        if (mScorerPath != null && !config.getHotWords().equals(mHotWords)) {
+            switched = true;
+            if (!mHotWords.isEmpty()) {
+                mModel.clearHotWords();
+            }
+            for (Map.Entry<String, Float> hotWord : config.getHotWords().entrySet()) {
+                mModel.addHotWord(hotWord.getKey(), hotWord.getValue());
+            }
+            mHotWords = new HashMap<>(config.getHotWords());
+        }
+
+        return switched;
+    }
+
+    /**
+     * Estimated native memory held by the model and scorer.
+     */
+    public long getSizeBytes() {
+        return mSizeBytes;
+    }
+
+    /**
+     * How long loading took, 0 if it's still loading.
+     */
+    public long getLoadTimeMs() {
+        return mLoadTimeMs;
+    }
+
+    /**
+     * Times a stream needed different decoder settings than the previous one.
+     */
+    public int getSwitchCount() {
+        return mSwitches;
+    }
+
+    public long getLastSwitchMs() {
+        return mLastSwitchNanos / 1000000;
+    }
+
+    public long getTotalSwitchMs() {
+        return mSwitchNanos / 1000000;
+    }
+
+    /**
+     * The interpreter isn't thread safe, feeding or finishing streams of this model from
+     * different threads has to be serialized on this lock.
+     */
+    @NonNull
+    public Object getInferenceLock() {
+        return mInferenceLock;
+    }
+
+    /**
+     * Whether a warm-up decode already ran on this model.
+     */
+    public boolean isWarmedUp() {
+        return mWarmedUp;
+    }
+
+    public void release() {
+        mCache.release(this);
+    }
+}
@@ -0,0 +1,76 @@
+package com.mozilla.speechlibrary.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.mozilla.speechlibrary.SpeechServiceSettings;
+import com.mozilla.speechlibrary.utils.ModelUtils;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decoder settings of the streams a session creates on a {@link CachedModel}: the external
+ * scorer, the beam width and the hot-word boosts. They are applied to the shared model right
+ * before each stream is created, the stream keeps them, so sessions with different settings
+ * share the acoustic model.
+ */
+public class DecoderConfig {
+
+    @Nullable
+    private final String mScorerPath;
+    private final int mBeamWidth;
+    @NonNull
+    private final Map<String, Float> mHotWords;
+
+    /**
+     * @param scorerPath null to decode without external scorer.
+     * @param beamWidth 0 for the model default.
+     * @param hotWords boost of each word, only used with a scorer.
+     */
+    public DecoderConfig(@Nullable String scorerPath, int beamWidth, @NonNull Map<String, Float> hotWords) {
+        mScorerPath = scorerPath;
+        mBeamWidth = Math.max(0, beamWidth);
+        mHotWords = Collections.unmodifiableMap(new HashMap<>(hotWords));
+    }
+
+    /**
+     * The scorer of a downloaded model folder unless the folder has a .noUseDecoder file.
+     */
+    @NonNull
+    public static DecoderConfig forModelRoot(@NonNull String modelRoot) {
+        return new DecoderConfig(defaultScorerPath(modelRoot), 0, Collections.emptyMap());
+    }
+
+    @NonNull
+    public static DecoderConfig fromSettings(@NonNull SpeechServiceSettings settings, @NonNull String modelRoot) {
+        String scorerPath = null;
+        if (settings.useScorer()) {
+            scorerPath = settings.getScorerPath() != null ?
+                    settings.getScorerPath() : defaultScorerPath(modelRoot);
+        }
+        return new DecoderConfig(scorerPath, settings.getBeamWidth(), settings.getHotWords());
+    }
+
+    @Nullable
+    private static String defaultScorerPath(@NonNull String modelRoot) {
+        boolean useDecoder = !(new File(modelRoot + "/.noUseDecoder")).exists();
+        return useDecoder ? ModelUtils.getScorerFolder(modelRoot) : null;
+    }
+
+    @Nullable
+    public String getScorerPath() {
+        return mScorerPath;
+    }
+
+    public int getBeamWidth() {
+        return mBeamWidth;
+    }
+
+    @NonNull
+    public Map<String, Float> getHotWords() {
+        return mHotWords;
+    }
+}
@@ -0,0 +1,108 @@
+package com.mozilla.speechlibrary.model;
+
+import androidx.annotation.NonNull;
+
+import org.mozilla.deepspeech.libdeepspeech.DeepSpeechModel;
+import org.mozilla.deepspeech.libdeepspeech.DeepSpeechStreamingState;
+
+import java.io.IOException;
+
+/**
+ * A DeepSpeech tflite model.
+ */
+class DeepSpeechBackend implements ModelBackend {
+
+    static final ModelLoader LOADER = modelPath -> {
+        try {
+            return new DeepSpeechBackend(new DeepSpeechModel(modelPath));
+
+        } catch (RuntimeException e) {
+            throw new IOException("Error loading model " + modelPath, e);
+        }
+    };
+
+    @NonNull
+    private final DeepSpeechModel mModel;
+
+    private DeepSpeechBackend(@NonNull DeepSpeechModel model) {
+        mModel = model;
+    }
+
+    @Override
+    public int sampleRate() {
+        return mModel.sampleRate();
+    }
+
+    @Override
+    public long beamWidth() {
+        return mModel.beamWidth();
+    }
+
+    @Override
+    public void setBeamWidth(long beamWidth) {
+        mModel.setBeamWidth(beamWidth);
+    }
+
+    @Override
+    public void enableExternalScorer(@NonNull String scorerPath) {
+        mModel.enableExternalScorer(scorerPath);
+    }
+
+    @Override
+    public void disableExternalScorer() {
+        mModel.disableExternalScorer();
+    }
+
+    @Override
+    public void addHotWord(@NonNull String word, float boost) {
+        mModel.addHotWord(word, boost);
+    }
+
+    @Override
+    public void clearHotWords() {
+        mModel.clearHotWords();
+    }
+
+    @NonNull
+    @Override
+    public ModelStream createStream() {
+        return new Stream(mModel.createStream());
+    }
+
+    @Override
+    public void free() {
+        mModel.freeModel();
+    }
+
+    private class Stream implements ModelStream {
+
+        @NonNull
+        private final DeepSpeechStreamingState mState;
+
+        Stream(@NonNull DeepSpeechStreamingState state) {
+            mState = state;
+        }
+
+        @Override
+        public void feedAudioContent(@NonNull short[] buffer, int length) {
+            mModel.feedAudioContent(mState, buffer, length);
+        }
+
+        @NonNull
+        @Override
+        public String intermediateDecode() {
+            return mModel.intermediateDecode(mState);
+        }
+
+        @NonNull
+        @Override
+        public String finishStream() {
+            return mModel.finishStream(mState);
+        }
+
+        @Override
+        public void freeStream() {
+            mModel.freeStream(mState);
+        }
+    }
+}
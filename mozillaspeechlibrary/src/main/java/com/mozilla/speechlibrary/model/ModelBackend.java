@@ -0,0 +1,35 @@
+package com.mozilla.speechlibrary.model;
+
+import androidx.annotation.NonNull;
+
+/**
+ * The decoder a {@link CachedModel} wraps, a DeepSpeech model in the library. The decoder
+ * settings apply to the streams created after them.
+ */
+public interface ModelBackend {
+
+    int sampleRate();
+
+    long beamWidth();
+
+    void setBeamWidth(long beamWidth);
+
+    /**
+     * @throws RuntimeException if the scorer can't be loaded.
+     */
+    void enableExternalScorer(@NonNull String scorerPath);
+
+    void disableExternalScorer();
+
+    void addHotWord(@NonNull String word, float boost);
+
+    void clearHotWords();
+
+    @NonNull
+    ModelStream createStream();
+
+    /**
+     * Frees the native model, no stream may be used after it.
+     */
+    void free();
+}
@@ -0,0 +1,190 @@
+package com.mozilla.speechlibrary.model;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.mozilla.speechlibrary.utils.ModelUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Process wide cache of loaded DeepSpeech models keyed by model path. Sessions
+ * borrow a model with {@link #acquire(File)} and give it back with
+ * {@link CachedModel#release()}. Models nobody uses stay loaded, least recently used first out,
+ * while the estimated native memory stays under the budget. A model in use is never evicted,
+ * so the budget can be exceeded while the sessions using it are running. The scorer isn't part
+ * of the key, each session picks it with the {@link DecoderConfig} of its streams.
+ */
+public class ModelCache {
+
+    private static final String TAG = ModelCache.class.getSimpleName();
+
+    // Room for a couple of languages with their scorers
+    public static final long DEFAULT_MEMORY_BUDGET = 1024L * 1024 * 1024;
+
+    private static final ModelCache sInstance = new ModelCache(DeepSpeechBackend.LOADER);
+
+    @NonNull
+    private final ModelLoader mLoader;
+    // Access ordered, the head is the least recently used
+    private final LinkedHashMap<String, CachedModel> mModels = new LinkedHashMap<>(4, 0.75f, true);
+    private long mMemoryBudget = DEFAULT_MEMORY_BUDGET;
+
+    ModelCache(@NonNull ModelLoader loader) {
+        mLoader = loader;
+    }
+
+    @NonNull
+    public static ModelCache getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * Acquires the model in a downloaded model folder, see {@link DecoderConfig#forModelRoot}
+     * for its scorer.
+     */
+    @NonNull
+    public CachedModel acquire(@NonNull String modelRoot) throws IOException {
+        return acquire(new File(ModelUtils.getTFLiteFolder(modelRoot)));
+    }
+
+    /**
+     * Returns the loaded model, loading it on the calling thread if needed. Concurrent calls
+     * for the same model wait for a single load.
+     */
+    @NonNull
+    public CachedModel acquire(@NonNull File modelFile) throws IOException {
+        String key = modelFile.getPath();
+        CachedModel cached;
+        synchronized (this) {
+            cached = mModels.get(key);
+            if (cached == null) {
+                cached = new CachedModel(this, key);
+                mModels.put(key, cached);
+            }
+            cached.mRefCount++;
+        }
+
+        try {
+            load(cached);
+
+        } catch (IOException e) {
+            synchronized (this) {
+                cached.mRefCount--;
+                if (cached.mRefCount == 0 && cached.mModel == null) {
+                    mModels.remove(key);
+                }
+            }
+            throw e;
+        }
+
+        return cached;
+    }
+
+    /**
+     * Loads a model instance of the caller's own, outside the cache and its memory budget, for
+     * work that runs inference on several threads at once. The caller frees it.
+     */
+    @NonNull
+    public ModelBackend loadUncached(@NonNull String modelRoot) throws IOException {
+        return mLoader.load(ModelUtils.getTFLiteFolder(modelRoot));
+    }
+
+    private void load(@NonNull CachedModel cached) throws IOException {
+        synchronized (cached) {
+            if (cached.mModel != null) {
+                return;
+            }
+
+            long start = System.nanoTime();
+            ModelBackend model = mLoader.load(cached.mModelPath);
+            cached.mLoadTimeMs = Math.max(1, (System.nanoTime() - start) / 1000000);
+            Log.d(TAG, "Loaded " + cached.mModelPath + " in " + cached.mLoadTimeMs + "ms");
+
+            synchronized (this) {
+                cached.onLoaded(model);
+                trim();
+            }
+        }
+    }
+
+    synchronized void release(@NonNull CachedModel cached) {
+        if (cached.mRefCount <= 0) {
+            throw new IllegalStateException("Model released more times than acquired");
+        }
+        cached.mRefCount--;
+        trim();
+    }
+
+    /**
+     * Whether the model is loaded, whoever is using it.
+     */
+    public boolean isLoaded(@NonNull String modelRoot) {
+        return isLoaded(new File(ModelUtils.getTFLiteFolder(modelRoot)));
+    }
+
+    public synchronized boolean isLoaded(@NonNull File modelFile) {
+        CachedModel cached = mModels.get(modelFile.getPath());
+        return cached != null && cached.mModel != null;
+    }
+
+    public synchronized void setMemoryBudget(long bytes) {
+        mMemoryBudget = Math.max(0, bytes);
+        trim();
+    }
+
+    public synchronized long getMemoryBudget() {
+        return mMemoryBudget;
+    }
+
+    public synchronized long getResidentBytes() {
+        long total = 0;
+        for (CachedModel cached : mModels.values()) {
+            if (cached.mModel != null) {
+                total += cached.mSizeBytes;
+            }
+        }
+        return total;
+    }
+
+    public synchronized int getResidentCount() {
+        int count = 0;
+        for (CachedModel cached : mModels.values()) {
+            if (cached.mModel != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Frees every model that isn't in use, for example when the system is low on memory.
+     */
+    public synchronized void evictIdle() {
+        evict(0);
+    }
+
+    private void trim() {
+        evict(mMemoryBudget);
+    }
+
+    private void evict(long budget) {
+        long resident = getResidentBytes();
+        Iterator<CachedModel> iterator = mModels.values().iterator();
+        while (resident > budget && iterator.hasNext()) {
+            CachedModel cached = iterator.next();
+            if (cached.mRefCount > 0 || cached.mModel == null) {
+                continue;
+            }
+            Log.d(TAG, "Evicting " + cached.mModelPath);
+            cached.mModel.free();
+            cached.mModel = null;
+            resident -= cached.mSizeBytes;
+            iterator.remove();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.mozilla.speechlibrary.model;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+
+/**
+ * Loads the model file a {@link ModelCache} was asked for.
+ */
+public interface ModelLoader {
+
+    @NonNull
+    ModelBackend load(@NonNull String modelPath) throws IOException;
+}
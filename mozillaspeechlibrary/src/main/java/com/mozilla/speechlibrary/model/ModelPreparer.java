@@ -0,0 +1,142 @@
+package com.mozilla.speechlibrary.model;
+
+import android.os.Process;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.mozilla.speechlibrary.utils.ModelUtils;
+
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads models into the {@link ModelCache} ahead of the sessions and runs a short decode on
+ * them, the first inference on a fresh interpreter is much slower than the next ones.
+ */
+public class ModelPreparer {
+
+    private static final String TAG = ModelPreparer.class.getSimpleName();
+
+    private static final int WARM_UP_MS = 1000;
+    // Low level noise, digital silence can take shortcuts the real audio won't
+    private static final int WARM_UP_AMPLITUDE = 64;
+
+    private final Map<String, PrepareState> mStates = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<PrepareCallback> mCallbacks = new CopyOnWriteArrayList<>();
+    @NonNull
+    private volatile Executor mDeliveryExecutor;
+    private ExecutorService mExecutor;
+
+    public ModelPreparer(@NonNull Executor deliveryExecutor) {
+        mDeliveryExecutor = deliveryExecutor;
+    }
+
+    public void setDeliveryExecutor(@NonNull Executor executor) {
+        mDeliveryExecutor = executor;
+    }
+
+    public void addCallback(@NonNull PrepareCallback callback) {
+        mCallbacks.addIfAbsent(callback);
+    }
+
+    public void removeCallback(@NonNull PrepareCallback callback) {
+        mCallbacks.remove(callback);
+    }
+
+    @NonNull
+    public PrepareState getState(@NonNull String modelRoot) {
+        PrepareState state = mStates.get(modelRoot);
+        if (state == null) {
+            return ModelCache.getInstance().isLoaded(modelRoot) ? PrepareState.READY : PrepareState.IDLE;
+        }
+        if (state == PrepareState.READY && !ModelCache.getInstance().isLoaded(modelRoot)) {
+            return PrepareState.IDLE;
+        }
+        return state;
+    }
+
+    /**
+     * Loads and warms up the model in the background, does nothing if it's already preparing
+     * or loaded.
+     */
+    public synchronized void prepare(@NonNull String modelRoot) {
+        PrepareState state = getState(modelRoot);
+        if (state == PrepareState.PREPARING || state == PrepareState.READY) {
+            return;
+        }
+        if (!ModelUtils.isReady(modelRoot)) {
+            setState(modelRoot, PrepareState.FAILED);
+            return;
+        }
+
+        setState(modelRoot, PrepareState.PREPARING);
+        if (mExecutor == null) {
+            mExecutor = Executors.newSingleThreadExecutor();
+        }
+        mExecutor.submit(() -> {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            try {
+                CachedModel cached = ModelCache.getInstance().acquire(modelRoot);
+                try {
+                    warmUp(cached, DecoderConfig.forModelRoot(modelRoot));
+
+                } finally {
+                    cached.release();
+                }
+                setState(modelRoot, PrepareState.READY);
+
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+                setState(modelRoot, PrepareState.FAILED);
+            }
+        });
+    }
+
+    /**
+     * Also loads the scorer the sessions use by default, so the first one doesn't switch it.
+     */
+    private static void warmUp(@NonNull CachedModel cached, @NonNull DecoderConfig config) throws IOException {
+        if (cached.isWarmedUp()) {
+            return;
+        }
+
+        short[] audio = new short[cached.getModel().sampleRate() * WARM_UP_MS / 1000];
+        Random random = new Random(0);
+        for (int i = 0; i < audio.length; i++) {
+            audio[i] = (short) (random.nextGaussian() * WARM_UP_AMPLITUDE);
+        }
+
+        long start = System.nanoTime();
+        synchronized (cached.getInferenceLock()) {
+            ModelStream stream = cached.createStream(config);
+            stream.feedAudioContent(audio, audio.length);
+            stream.finishStream();
+        }
+        cached.mWarmedUp = true;
+        Log.d(TAG, "Warmed up " + cached.getModelPath() + " in " + (System.nanoTime() - start) / 1000000 + "ms");
+    }
+
+    private void setState(@NonNull String modelRoot, @NonNull PrepareState state) {
+        mStates.put(modelRoot, state);
+        mDeliveryExecutor.execute(() -> {
+            for (PrepareCallback callback : mCallbacks) {
+                callback.onPrepareStateChanged(modelRoot, state);
+            }
+        });
+    }
+
+    public synchronized void shutdown() {
+        if (mExecutor != null) {
+            mExecutor.shutdown();
+            mExecutor = null;
+        }
+    }
+}
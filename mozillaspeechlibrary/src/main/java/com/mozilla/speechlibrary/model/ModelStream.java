@@ -0,0 +1,26 @@
+package com.mozilla.speechlibrary.model;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A decoding stream of a {@link ModelBackend}. Streams of the same model share its
+ * interpreter, the calls have to hold {@link CachedModel#getInferenceLock()}.
+ */
+public interface ModelStream {
+
+    void feedAudioContent(@NonNull short[] buffer, int length);
+
+    @NonNull
+    String intermediateDecode();
+
+    /**
+     * Decodes what was fed and frees the stream.
+     */
+    @NonNull
+    String finishStream();
+
+    /**
+     * Frees the stream without decoding.
+     */
+    void freeStream();
+}
@@ -0,0 +1,8 @@
+package com.mozilla.speechlibrary.model;
+
+import androidx.annotation.NonNull;
+
+public interface PrepareCallback {
+
+    void onPrepareStateChanged(@NonNull String modelPath, @NonNull PrepareState state);
+}
@@ -0,0 +1,9 @@
+package com.mozilla.speechlibrary.model;
+
+public enum PrepareState {
+    // Not loaded, or evicted from the cache since
+    IDLE,
+    PREPARING,
+    READY,
+    FAILED
+}
@@ -0,0 +1,60 @@
+package com.mozilla.speechlibrary.model;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts how many sessions used each model folder, older sessions weigh less so a language
+ * the user switched away from stops being prefetched.
+ */
+public class UsageHistory {
+
+    private static final String PREFS_NAME = "speechlibrary_model_usage";
+    // Every new session makes the previous ones count this much less
+    private static final float DECAY = 0.9f;
+
+    @NonNull
+    private final SharedPreferences mPreferences;
+
+    public UsageHistory(@NonNull Context context) {
+        mPreferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    public void recordUsage(@NonNull String modelPath) {
+        SharedPreferences.Editor editor = mPreferences.edit();
+        for (Map.Entry<String, ?> entry : mPreferences.getAll().entrySet()) {
+            if (entry.getValue() instanceof Float) {
+                editor.putFloat(entry.getKey(), (Float) entry.getValue() * DECAY);
+            }
+        }
+        editor.putFloat(modelPath, mPreferences.getFloat(modelPath, 0) * DECAY + 1);
+        editor.apply();
+    }
+
+    /**
+     * Model folders by decreasing usage.
+     */
+    @NonNull
+    public List<String> getMostUsed(int count) {
+        List<Map.Entry<String, ?>> entries = new ArrayList<>(mPreferences.getAll().entrySet());
+        entries.removeIf(entry -> !(entry.getValue() instanceof Float));
+        Collections.sort(entries, (a, b) -> Float.compare((Float) b.getValue(), (Float) a.getValue()));
+
+        List<String> models = new ArrayList<>();
+        for (int i = 0; i < entries.size() && i < count; i++) {
+            models.add(entries.get(i).getKey());
+        }
+        return models;
+    }
+
+    public void clear() {
+        mPreferences.edit().clear().apply();
+    }
+}
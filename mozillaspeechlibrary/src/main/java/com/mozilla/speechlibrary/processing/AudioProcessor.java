@@ -0,0 +1,17 @@
+package com.mozilla.speechlibrary.processing;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A stage of the {@link AudioProcessorChain}. Samples are floats in the 16 bit PCM range, stages
+ * may go beyond it, the chain saturates once when converting back.
+ */
+public interface AudioProcessor {
+
+    void process(@NonNull float[] samples, int length);
+
+    /**
+     * Drops any state carried from previous frames.
+     */
+    default void reset() {}
+}
@@ -0,0 +1,119 @@
+package com.mozilla.speechlibrary.processing;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Runs a list of {@link AudioProcessor}s in place over 16 bit PCM frames. The frame is converted
+ * to floats once in a scratch buffer and saturated back to shorts at the end, so nothing is
+ * allocated per frame and the stages can't overflow each other. The time spent in every stage
+ * is accumulated.
+ */
+public class AudioProcessorChain {
+
+    private AudioProcessor[] mStages = new AudioProcessor[0];
+    private long[] mStageNanos = new long[0];
+    private float[] mScratch = new float[0];
+    private long mFrames;
+    private long mClippedSamples;
+
+    @NonNull
+    public AudioProcessorChain add(@NonNull AudioProcessor stage) {
+        mStages = Arrays.copyOf(mStages, mStages.length + 1);
+        mStages[mStages.length - 1] = stage;
+        mStageNanos = Arrays.copyOf(mStageNanos, mStages.length);
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return mStages.length == 0;
+    }
+
+    public void process(@NonNull short[] buffer, int length) {
+        if (mStages.length == 0 || length <= 0) {
+            return;
+        }
+
+        if (mScratch.length < length) {
+            mScratch = new float[buffer.length];
+        }
+        float[] samples = mScratch;
+        for (int i = 0; i < length; i++) {
+            samples[i] = buffer[i];
+        }
+
+        for (int s = 0; s < mStages.length; s++) {
+            long start = System.nanoTime();
+            mStages[s].process(samples, length);
+            mStageNanos[s] += System.nanoTime() - start;
+        }
+
+        int clipped = 0;
+        for (int i = 0; i < length; i++) {
+            float value = samples[i];
+            if (value > Short.MAX_VALUE) {
+                buffer[i] = Short.MAX_VALUE;
+                clipped++;
+
+            } else if (value < Short.MIN_VALUE) {
+                buffer[i] = Short.MIN_VALUE;
+                clipped++;
+
+            } else {
+                buffer[i] = (short) Math.round(value);
+            }
+        }
+        mClippedSamples += clipped;
+        mFrames++;
+    }
+
+    public void reset() {
+        for (AudioProcessor stage : mStages) {
+            stage.reset();
+        }
+    }
+
+    public int getStageCount() {
+        return mStages.length;
+    }
+
+    @NonNull
+    public AudioProcessor getStage(int index) {
+        return mStages[index];
+    }
+
+    /**
+     * Total time spent in the stage since the chain was created.
+     */
+    public long getStageNanos(int index) {
+        return mStageNanos[index];
+    }
+
+    public long getFrames() {
+        return mFrames;
+    }
+
+    /**
+     * Samples that were still out of range after the last stage.
+     */
+    public long getClippedSamples() {
+        return mClippedSamples;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("AudioProcessorChain ")
+                .append(mFrames).append(" frames, ")
+                .append(mClippedSamples).append(" clipped");
+        for (int s = 0; s < mStages.length; s++) {
+            builder.append(", ")
+                    .append(mStages[s].getClass().getSimpleName())
+                    .append(' ')
+                    .append(mFrames > 0 ? mStageNanos[s] / mFrames : 0)
+                    .append("ns/frame");
+        }
+        return builder.toString();
+    }
+}
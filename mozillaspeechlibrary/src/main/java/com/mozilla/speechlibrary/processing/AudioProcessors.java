@@ -0,0 +1,38 @@
+package com.mozilla.speechlibrary.processing;
+
+import androidx.annotation.NonNull;
+
+import com.mozilla.speechlibrary.SpeechServiceSettings;
+
+public class AudioProcessors {
+
+    // Keeps the limiter a bit under full scale so the encoders never see a clipped peak
+    private static final float CLIP_CEILING_DB = -1;
+    private static final float AGC_TARGET_DB = -20;
+
+    /**
+     * Builds the capture chain: high-pass, then either the AGC or the fixed gain, then the
+     * clip guard. Stages disabled in the settings are left out.
+     */
+    @NonNull
+    public static AudioProcessorChain fromSettings(@NonNull SpeechServiceSettings settings, int sampleRate) {
+        AudioProcessorChain chain = new AudioProcessorChain();
+
+        if (settings.getHighPassHz() > 0) {
+            chain.add(new HighPassFilter(sampleRate, settings.getHighPassHz()));
+        }
+
+        if (settings.useAutomaticGainControl()) {
+            chain.add(new AutomaticGainControl(sampleRate, AGC_TARGET_DB, settings.getGainDb()));
+
+        } else if (settings.getGainDb() != 0) {
+            chain.add(new GainProcessor(settings.getGainDb()));
+        }
+
+        if (settings.useClipGuard()) {
+            chain.add(new ClipGuard(sampleRate, CLIP_CEILING_DB));
+        }
+
+        return chain;
+    }
+}
@@ -0,0 +1,68 @@
+package com.mozilla.speechlibrary.processing;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Brings the speech level towards a target RMS level. The gain drops quickly when the input
+ * gets louder and rises slowly, and it isn't raised on frames below the noise gate so
+ * background noise isn't pumped up between words.
+ */
+public class AutomaticGainControl implements AudioProcessor {
+
+    private static final float FULL_SCALE = 32768f;
+    private static final float NOISE_GATE_DB = -55;
+    private static final float ATTACK_MS = 20;
+    private static final float RELEASE_MS = 1500;
+
+    private final int mSampleRate;
+    private final float mTargetDb;
+    private final float mMaxGainDb;
+    private float mGainDb;
+    private float mGain;
+
+    public AutomaticGainControl(int sampleRate, float targetDb, float maxGainDb) {
+        mSampleRate = sampleRate;
+        mTargetDb = targetDb;
+        mMaxGainDb = maxGainDb;
+        reset();
+    }
+
+    public float getGainDb() {
+        return mGainDb;
+    }
+
+    @Override
+    public void process(@NonNull float[] samples, int length) {
+        if (length <= 0) {
+            return;
+        }
+
+        double sumSquares = 0;
+        for (int i = 0; i < length; i++) {
+            sumSquares += samples[i] * samples[i];
+        }
+        double rms = Math.sqrt(sumSquares / length) / FULL_SCALE;
+        float levelDb = rms > 0 ? (float) (20 * Math.log10(rms)) : -120;
+
+        float desiredDb = Math.max(-mMaxGainDb, Math.min(mMaxGainDb, mTargetDb - levelDb));
+        float frameMs = 1000f * length / mSampleRate;
+        if (desiredDb < mGainDb) {
+            mGainDb += (desiredDb - mGainDb) * smoothing(frameMs, ATTACK_MS);
+
+        } else if (levelDb > NOISE_GATE_DB) {
+            mGainDb += (desiredDb - mGainDb) * smoothing(frameMs, RELEASE_MS);
+        }
+
+        mGain = GainProcessor.ramp(samples, length, mGain, GainProcessor.dbToGain(mGainDb));
+    }
+
+    private static float smoothing(float frameMs, float timeConstantMs) {
+        return (float) (1 - Math.exp(-frameMs / timeConstantMs));
+    }
+
+    @Override
+    public void reset() {
+        mGainDb = 0;
+        mGain = 1;
+    }
+}
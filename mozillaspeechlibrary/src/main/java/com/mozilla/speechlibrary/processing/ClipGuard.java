@@ -0,0 +1,46 @@
+package com.mozilla.speechlibrary.processing;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Peak limiter that keeps the frame under the ceiling instead of letting it hard clip. The gain
+ * drops at once on a frame that would go over and recovers over the release time.
+ */
+public class ClipGuard implements AudioProcessor {
+
+    private static final float RELEASE_MS = 200;
+
+    private final float mCeiling;
+    private final float mReleasePerSample;
+    private float mGain = 1;
+
+    public ClipGuard(int sampleRate, float ceilingDb) {
+        mCeiling = 32767f * GainProcessor.dbToGain(Math.min(0, ceilingDb));
+        mReleasePerSample = 1000f / (RELEASE_MS * sampleRate);
+    }
+
+    @Override
+    public void process(@NonNull float[] samples, int length) {
+        float peak = 0;
+        for (int i = 0; i < length; i++) {
+            float abs = Math.abs(samples[i]);
+            if (abs > peak) {
+                peak = abs;
+            }
+        }
+
+        float target = Math.min(1, mGain + mReleasePerSample * length);
+        if (peak * target > mCeiling) {
+            // Attack has to cover the whole frame, ramping would let the first samples through
+            target = mCeiling / peak;
+            mGain = target;
+        }
+
+        mGain = GainProcessor.ramp(samples, length, mGain, target);
+    }
+
+    @Override
+    public void reset() {
+        mGain = 1;
+    }
+}
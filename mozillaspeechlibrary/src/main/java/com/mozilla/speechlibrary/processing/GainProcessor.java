@@ -0,0 +1,56 @@
+package com.mozilla.speechlibrary.processing;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Fixed gain. A new gain is ramped in over the next frame instead of stepping.
+ */
+public class GainProcessor implements AudioProcessor {
+
+    private float mGain;
+    private float mTargetGain;
+
+    public GainProcessor(float gainDb) {
+        mGain = dbToGain(gainDb);
+        mTargetGain = mGain;
+    }
+
+    public void setGainDb(float gainDb) {
+        mTargetGain = dbToGain(gainDb);
+    }
+
+    public float getGainDb() {
+        return (float) (20 * Math.log10(mTargetGain));
+    }
+
+    @Override
+    public void process(@NonNull float[] samples, int length) {
+        mGain = ramp(samples, length, mGain, mTargetGain);
+    }
+
+    static float dbToGain(float db) {
+        return (float) Math.pow(10, db / 20);
+    }
+
+    /**
+     * Applies a gain going linearly from {@code from} to {@code to} across the frame.
+     *
+     * @return the gain reached at the end of the frame.
+     */
+    static float ramp(@NonNull float[] samples, int length, float from, float to) {
+        if (from == to) {
+            for (int i = 0; i < length; i++) {
+                samples[i] *= to;
+            }
+
+        } else {
+            float step = (to - from) / length;
+            float gain = from;
+            for (int i = 0; i < length; i++) {
+                gain += step;
+                samples[i] *= gain;
+            }
+        }
+        return to;
+    }
+}
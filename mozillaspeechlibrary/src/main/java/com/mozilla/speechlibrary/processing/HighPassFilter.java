@@ -0,0 +1,39 @@
+package com.mozilla.speechlibrary.processing;
+
+import androidx.annotation.NonNull;
+
+/**
+ * First order high-pass, removes the DC offset and the low rumble some microphones add.
+ */
+public class HighPassFilter implements AudioProcessor {
+
+    private final float mAlpha;
+    private float mLastInput;
+    private float mLastOutput;
+
+    public HighPassFilter(int sampleRate, int cutoffHz) {
+        double rc = 1.0 / (2 * Math.PI * cutoffHz);
+        double dt = 1.0 / sampleRate;
+        mAlpha = (float) (rc / (rc + dt));
+    }
+
+    @Override
+    public void process(@NonNull float[] samples, int length) {
+        float lastInput = mLastInput;
+        float lastOutput = mLastOutput;
+        for (int i = 0; i < length; i++) {
+            float input = samples[i];
+            lastOutput = mAlpha * (lastOutput + input - lastInput);
+            lastInput = input;
+            samples[i] = lastOutput;
+        }
+        mLastInput = lastInput;
+        mLastOutput = lastOutput;
+    }
+
+    @Override
+    public void reset() {
+        mLastInput = 0;
+        mLastOutput = 0;
+    }
+}
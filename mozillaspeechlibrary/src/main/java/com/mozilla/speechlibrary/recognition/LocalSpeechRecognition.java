@@ -6,20 +6,30 @@ import androidx.annotation.NonNull;
 
 import com.mozilla.speechlibrary.SpeechResultCallback;
 import com.mozilla.speechlibrary.SpeechServiceSettings;
-import com.mozilla.speechlibrary.stt.STTLocalClient;
+import com.mozilla.speechlibrary.audio.AudioSource;
+import com.mozilla.speechlibrary.engine.DeepSpeechEngine;
+import com.mozilla.speechlibrary.engine.STTEngine;
 
 public class LocalSpeechRecognition extends SpeechRecognition {
 
+    @NonNull
+    private STTEngine mEngine;
+
     public LocalSpeechRecognition(@NonNull Context context) {
+        this(context, new DeepSpeechEngine());
+    }
+
+    public LocalSpeechRecognition(@NonNull Context context, @NonNull STTEngine engine) {
         super(context);
+
+        mEngine = engine;
     }
 
     @Override
     public void start(@NonNull SpeechServiceSettings settings,
+                      @NonNull AudioSource source,
                       @NonNull SpeechResultCallback callback) {
-        mStt = new STTLocalClient(mContext, settings, this);
-        Thread sttThread = new Thread((STTLocalClient)mStt, "STT Thread");
-        sttThread.start();
-        super.start(settings, callback);
+        mStt = mEngine.createClient(mContext, settings, this);
+        super.start(settings, source, callback);
     }
 }
@@ -7,6 +7,7 @@ import androidx.annotation.Nullable;
 
 import com.mozilla.speechlibrary.SpeechResultCallback;
 import com.mozilla.speechlibrary.SpeechServiceSettings;
+import com.mozilla.speechlibrary.audio.AudioSource;
 import com.mozilla.speechlibrary.stt.STTGeckoNetworkClient;
 import com.mozilla.speechlibrary.stt.STTNetworkClient;
 
@@ -25,6 +26,7 @@ public class NetworkSpeechRecognition extends SpeechRecognition {
 
     @Override
     public void start(@NonNull SpeechServiceSettings settings,
+                      @NonNull AudioSource source,
                       @NonNull SpeechResultCallback callback) {
         if (mExecutor == null) {
             mStt = new STTNetworkClient(mContext, settings, this);
@@ -33,6 +35,6 @@ public class NetworkSpeechRecognition extends SpeechRecognition {
             mStt = new STTGeckoNetworkClient(mContext, settings, this, mExecutor);
         }
 
-        super.start(settings, callback);
+        super.start(settings, source, callback);
     }
 }
@@ -1,132 +1,260 @@
 package com.mozilla.speechlibrary.recognition;
 
 import android.content.Context;
-import android.media.AudioRecord;
-import android.os.Bundle;
-import android.os.Handler;
+import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import com.github.axet.audiolibrary.encoders.Sound;
-import com.mozilla.speechlibrary.SpeechResultReceiver;
-import com.mozilla.speechlibrary.SpeechState;
+import com.github.axet.audiolibrary.encoders.FFT;
+import com.mozilla.speechlibrary.SpeechEventDispatcher;
+import com.mozilla.speechlibrary.audio.AudioFrame;
+import com.mozilla.speechlibrary.audio.AudioFramePool;
+import com.mozilla.speechlibrary.audio.AudioRingBuffer;
+import com.mozilla.speechlibrary.audio.AudioSource;
+import com.mozilla.speechlibrary.audio.LevelMeter;
+import com.mozilla.speechlibrary.audio.MicAudioSource;
+import com.mozilla.speechlibrary.endpoint.EndpointReason;
+import com.mozilla.speechlibrary.endpoint.Endpointer;
+import com.mozilla.speechlibrary.endpoint.Endpointers;
+import com.mozilla.speechlibrary.endpoint.HypothesisEndpointPolicy;
+import com.mozilla.speechlibrary.processing.AudioProcessorChain;
+import com.mozilla.speechlibrary.processing.AudioProcessors;
+import com.mozilla.speechlibrary.stt.STTPartialResult;
 import com.mozilla.speechlibrary.stt.STTResult;
-import com.mozilla.speechlibrary.Vad;
 import com.mozilla.speechlibrary.SpeechResultCallback;
 import com.mozilla.speechlibrary.SpeechServiceSettings;
 import com.mozilla.speechlibrary.stt.STTClient;
 import com.mozilla.speechlibrary.stt.STTClientCallback;
+import com.mozilla.speechlibrary.stt.STTHypothesis;
+import com.mozilla.speechlibrary.vad.VadEngine;
+import com.mozilla.speechlibrary.vad.VadEngines;
 
+import java.io.IOException;
 import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 public abstract class SpeechRecognition implements STTClientCallback {
 
+    private static final String TAG = SpeechRecognition.class.getSimpleName();
+
     private static final int SAMPLE_RATE = 16000;
     private static final int CHANNELS = 1;
     private static final int FRAME_SIZE = 160;
-    private static final int MAX_SILENCE = 1500;
-    private static final int MIN_VOICE = 250;
+    private static final int FRAME_MS = FRAME_SIZE * CHANNELS * 2 * 1000 / SAMPLE_RATE;
+    // Frames held outside the STT queue: the one being captured, the pre-roll being flushed
+    // and the ones waiting for the clip recorder
+    private static final int FRAME_POOL_HEADROOM = 25;
 
     @NonNull
     Context mContext;
     STTClient mStt;
     @NonNull
-    private SpeechResultReceiver mReceiver;
+    private SpeechEventDispatcher mDispatcher;
     private SpeechResultCallback mDelegate;
-    private Vad mVad;
-    private boolean mIsRunning;
-    private AudioRecord mRecorder;
+    private VadEngine mVad;
+    private volatile boolean mIsRunning;
+    private volatile boolean mStopped;
+    private boolean mContinuous;
+    private AudioSource mAudioSource;
+    private AudioFramePool mFramePool;
+    private final CountDownLatch mFinished = new CountDownLatch(1);
+    @NonNull
+    private EndpointReason mEndpointReason = EndpointReason.NONE;
 
     SpeechRecognition(@NonNull Context context) {
         mContext = context;
-        mReceiver = new SpeechResultReceiver(new Handler(context.getMainLooper()));
+        mDispatcher = new SpeechEventDispatcher(SpeechEventDispatcher.mainThread(context));
+    }
+
+    /**
+     * Sets where the callbacks are run, the main looper by default. Must be called before
+     * {@link #start}.
+     */
+    public void setDeliveryExecutor(@NonNull Executor executor) {
+        mDispatcher = new SpeechEventDispatcher(executor);
     }
 
     public void start(@NonNull SpeechServiceSettings settings, @NonNull SpeechResultCallback callback) {
+        start(settings, new MicAudioSource(SAMPLE_RATE, CHANNELS), callback);
+    }
+
+    /**
+     * Runs a recognition session reading from the given source, the session takes ownership
+     * of the source and closes it when done.
+     */
+    public void start(@NonNull SpeechServiceSettings settings,
+                      @NonNull AudioSource source,
+                      @NonNull SpeechResultCallback callback) {
         mDelegate = callback;
-        mReceiver.addReceiver(mDelegate);
+        mDispatcher.addListener(mDelegate);
         mIsRunning = true;
-        mVad = new Vad();
+        mContinuous = settings.useContinuousMode();
+        mAudioSource = source;
 
         boolean done = false;
 
         try {
-            int retVal = mVad.start();
-            if (retVal < 0) {
-                throw new Exception("Error Initializing VAD: " + retVal);
+            if (mStopped) {
+                mStt.cancel();
+                return;
             }
 
+            mVad = VadEngines.create(settings, SAMPLE_RATE);
+            mVad.open();
+
             if (!mStt.isRunning()) {
                 return;
             }
 
-            long samplesVoice = 0;
-            long samplesSilence = 0;
-            boolean touchedVoice = false;
-            boolean touchedSilence = false;
-            int vad;
-            long dtantes = System.currentTimeMillis();
-            long dtantesmili = 	System.currentTimeMillis();
-            boolean raisenovoice = false;
-
-            mRecorder = Sound.getAudioRecord(CHANNELS, SAMPLE_RATE);
-            mRecorder.startRecording();
+            // The STT queue may fill up to its capacity while the model loads or the decoder
+            // falls behind, the pool covers it so the capture doesn't allocate meanwhile
+            mFramePool = new AudioFramePool(FRAME_SIZE * CHANNELS * 2,
+                    settings.getQueueCapacityMs() / FRAME_MS + FRAME_POOL_HEADROOM);
+
+            boolean vad;
+            LevelMeter levelMeter = new LevelMeter(SAMPLE_RATE, settings.getMicActivityRate());
+            FFT fft = settings.useRmsMicActivity() ?
+                    null : new FFT(FFT.nextPowerOfTwo(FRAME_SIZE * CHANNELS * 2), false);
+            Endpointer endpointer = Endpointers.fromSettings(settings, SAMPLE_RATE);
+            HypothesisEndpointPolicy earlyPolicy = settings.useEarlyEndpointing() ?
+                    new HypothesisEndpointPolicy(
+                            settings.getEarlyMinSilenceMs(),
+                            settings.getStabilityWindowMs(),
+                            settings.getCommandPhrases()) : null;
+            AudioProcessorChain processor = AudioProcessors.fromSettings(settings, SAMPLE_RATE);
+            mEndpointReason = EndpointReason.NONE;
+
+            source.open();
+            if (source.getSampleRate() != SAMPLE_RATE || source.getChannels() != CHANNELS) {
+                throw new Exception("Unsupported audio format: " +
+                        source.getSampleRate() + "Hz " + source.getChannels() + "ch");
+            }
 
             mStt.initEncoding(SAMPLE_RATE);
             mCallback.onStartListen();
 
-            while (mIsRunning && !done) {
+            // Continuous sessions wait for voice before starting each utterance, the audio
+            // right before the voice is kept so the first syllable isn't cut
+            boolean inUtterance = !mContinuous;
+            AudioRingBuffer preRoll = new AudioRingBuffer(
+                    mContinuous ? settings.getPreRollMs() * SAMPLE_RATE / 1000 * CHANNELS : 0);
+            // Utterances handed to the client so far, and the pre-roll the current one started with
+            int utterance = 0;
+            long preRollMs = 0;
+            boolean speculated = false;
+
+            while (mIsRunning && !done && mStt.isRunning()) {
                 int nshorts = 0;
 
-                short[] mBufTemp = new short[FRAME_SIZE * CHANNELS * 2];
-                nshorts = mRecorder.read(mBufTemp, 0, mBufTemp.length);
+                AudioFrame frame = mFramePool.acquire();
+                short[] mBufTemp = frame.getData();
+                nshorts = readFrame(source, mBufTemp);
+                if (nshorts <= 0) {
+                    frame.release();
+                    break;
+                }
+                frame.setLength(nshorts);
 
-                vad = mVad.feed(mBufTemp, nshorts);
-                double[] fft =  Sound.fft(mBufTemp, 0, nshorts);
-                double fftsum = Arrays.stream(fft).sum()/fft.length;
+                processor.process(mBufTemp, nshorts);
 
-                mCallback.onMicActivity(fftsum);
+                vad = mVad.isVoice(mBufTemp, nshorts);
+                if (levelMeter.process(mBufTemp, nshorts)) {
+                    if (fft != null) {
+                        mCallback.onMicActivity(fft.meanPowerDb(mBufTemp, 0, nshorts));
 
-                long dtdepois = System.currentTimeMillis();
+                    } else {
+                        mCallback.onMicActivity(levelMeter.getRmsDb());
+                    }
+                }
 
-                if (vad == 0) {
-                    if (touchedVoice) {
-                        samplesSilence += dtdepois - dtantesmili;
-                        if (samplesSilence > MAX_SILENCE) touchedSilence = true;
+                if (!inUtterance) {
+                    if (!vad) {
+                        preRoll.write(mBufTemp, 0, nshorts);
+                        frame.release();
+                        continue;
                     }
+                    endpointer.reset();
+                    mStt.beginUtterance();
+                    preRollMs = encodePreRoll(preRoll) * 1000L / (SAMPLE_RATE * CHANNELS);
+                    inUtterance = true;
+                    speculated = false;
+                }
 
-                } else {
-                    samplesVoice  += dtdepois - dtantesmili;
-                    if (samplesVoice > MIN_VOICE) touchedVoice = true;
+                boolean ended = endpointer.feed(vad, mBufTemp, nshorts);
+                if (!ended && earlyPolicy != null) {
+                    ended = checkHypothesis(earlyPolicy, endpointer, utterance, preRollMs);
+                }
 
-                    for (int i = 0; i < mBufTemp.length; ++i) {
-                        mBufTemp[i] *= 5.0;
+                mStt.encode(frame);
+                frame.release();
+
+                if (settings.useSpeculativeFinalization()) {
+                    // Also when this frame ends the utterance, the speculation is missing its voice
+                    if (vad) {
+                        if (speculated) {
+                            mStt.discardSpeculation();
+                            speculated = false;
+                        }
+
+                    } else if (!ended && !speculated && endpointer.hasVoice() &&
+                            endpointer.getTrailingSilenceMs() >= settings.getSpeculationOnsetMs()) {
+                        mStt.speculate();
+                        speculated = true;
                     }
                 }
-                dtantesmili = dtdepois;
 
-                mStt.encode(mBufTemp, 0, nshorts);
+                if (!mContinuous) {
+                    done = ended;
+
+                } else if (ended) {
+                    mEndpointReason = endpointer.getReason();
+                    Log.d(TAG, "Endpoint: " + mEndpointReason + " after " + endpointer.getElapsedMs() + "ms");
+                    if (mEndpointReason == EndpointReason.NO_VOICE) {
+                        mStt.cancelUtterance();
 
-                if (touchedVoice && touchedSilence) {
-                    done = true;
+                    } else {
+                        mStt.endUtterance();
+                    }
+                    inUtterance = false;
+                    utterance++;
+
+                } else if (!endpointer.hasVoice() &&
+                        endpointer.getTrailingSilenceMs() > settings.getMaxSilenceMs()) {
+                    // The voice didn't last long enough to be an utterance
+                    mStt.cancelUtterance();
+                    inUtterance = false;
+                    utterance++;
                 }
+            }
 
-                int mUpperLimit = 10;
-                if ((dtdepois - dtantes)/1000 > mUpperLimit) {
-                    done = true;
-                    if (!touchedVoice) {
-                        raisenovoice = true;
+            Log.d(TAG, processor.toString());
+
+            if (mContinuous) {
+                if (inUtterance) {
+                    if (endpointer.hasVoice()) {
+                        mStt.endUtterance();
+
+                    } else {
+                        mStt.cancelUtterance();
                     }
                 }
 
-                if (nshorts <= 0)
-                    break;
+                mStt.endEncoding();
+                mStt.process();
+                return;
             }
 
+            mEndpointReason = endpointer.getReason();
+            boolean raisenovoice = mEndpointReason == EndpointReason.NO_VOICE;
+            Log.d(TAG, "Endpoint: " + mEndpointReason + " after " + endpointer.getElapsedMs() + "ms");
+
             mStt.endEncoding();
 
             if (raisenovoice) {
+                mStt.cancel();
                 mCallback.onNoVoice();
 
             } else {
@@ -135,46 +263,124 @@ public abstract class SpeechRecognition implements STTClientCallback {
 
         } catch (Exception exc) {
             mStt.endEncoding();
+            mStt.cancel();
             mCallback.onError(SpeechResultCallback.SPEECH_ERROR, exc.getLocalizedMessage());
             exc.printStackTrace();
 
         } finally {
+            if (mContinuous) {
+                mIsRunning = false;
+            }
+            // Only this thread reads the source, it's closed once the loop is done with it
             releaseResources();
+            mFinished.countDown();
         }
     }
 
-    private void releaseResources() {
-        if (mRecorder != null) {
-            try {
-                mRecorder.stop();
+    /**
+     * Fills the whole 20ms frame the VAD expects, sources may return shorter reads. The last
+     * partial frame is padded with silence.
+     *
+     * @return the frame length or -1 once the source is exhausted.
+     */
+    private static int readFrame(@NonNull AudioSource source, @NonNull short[] frame) throws IOException {
+        int length = 0;
+        while (length < frame.length) {
+            int read = source.read(frame, length, frame.length - length);
+            if (read <= 0) {
+                break;
+            }
+            length += read;
+        }
+        if (length == 0) {
+            return -1;
+        }
+        Arrays.fill(frame, length, frame.length, (short) 0);
+        return frame.length;
+    }
 
-            } catch (IllegalStateException e) {
-                e.printStackTrace();
+    private int encodePreRoll(@NonNull AudioRingBuffer preRoll) {
+        int samples = 0;
+        while (preRoll.size() > 0) {
+            AudioFrame frame = mFramePool.acquire();
+            frame.setLength(preRoll.read(frame.getData(), 0, frame.getCapacity()));
+            samples += frame.getLength();
+            mStt.encode(frame);
+            frame.release();
+        }
+        return samples;
+    }
 
-            } finally {
-                mRecorder.release();
-                mRecorder = null;
-            }
+    /**
+     * Ends the utterance early if the client's transcript of it is stable. The client may be
+     * behind, a hypothesis of a previous utterance or from before the silence doesn't count.
+     */
+    private boolean checkHypothesis(@NonNull HypothesisEndpointPolicy policy,
+                                    @NonNull Endpointer endpointer,
+                                    int utterance,
+                                    long preRollMs) {
+        STTHypothesis hypothesis = mStt.getHypothesis();
+        if (hypothesis == null || hypothesis.mUtterance != utterance) {
+            return false;
+        }
+
+        if (policy.isOver(endpointer, hypothesis.mText,
+                hypothesis.mCheckedMs - preRollMs, hypothesis.mChangedMs - preRollMs)) {
+            return endpointer.end(EndpointReason.STABLE_HYPOTHESIS);
+        }
+        return false;
+    }
+
+    private void releaseResources() {
+        if (mAudioSource != null) {
+            mAudioSource.close();
+            mAudioSource = null;
         }
 
         if (mVad != null) {
-            mVad.stop();
+            mVad.close();
             mVad = null;
         }
     }
 
+    /**
+     * Ends the session, the session thread closes the source once it's done reading it.
+     */
     public void stop() {
-        mReceiver.removeReceiver(mDelegate);
+        mDispatcher.removeListener(mDelegate);
 
+        mStopped = true;
         mIsRunning = false;
+    }
+
+    /**
+     * Waits for the session thread to release the source, so the next session can open it.
+     *
+     * @return false if it didn't within the timeout.
+     */
+    public boolean awaitFinished(long timeoutMs) {
+        try {
+            return mFinished.await(timeoutMs, TimeUnit.MILLISECONDS);
 
-        releaseResources();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
     }
 
     public boolean isRunning() {
         return mIsRunning;
     }
 
+    /**
+     * The endpointing rule that ended the last session, {@link EndpointReason#NONE} if it
+     * was stopped or the audio ran out first.
+     */
+    @NonNull
+    public EndpointReason getEndpointReason() {
+        return mEndpointReason;
+    }
+
     // STTClientCallback
 
     @Override
@@ -187,6 +393,11 @@ public abstract class SpeechRecognition implements STTClientCallback {
         mCallback.onSTTResult(result);
     }
 
+    @Override
+    public void onSTTPartial(@NonNull STTPartialResult result) {
+        mCallback.onPartialResult(result);
+    }
+
     @Override
     public void onSTTError(@NonNull String error) {
         mCallback.onError(SpeechResultCallback.SPEECH_ERROR, error);
@@ -198,44 +409,45 @@ public abstract class SpeechRecognition implements STTClientCallback {
 
         @Override
         public void onStartListen() {
-            Bundle bundle = new Bundle();
-            mReceiver.send(SpeechState.START_LISTEN.ordinal(), bundle);
+            mDispatcher.onStartListen();
         }
 
         @Override
         public void onMicActivity(double fftsum) {
-            Bundle bundle = new Bundle();
-            bundle.putSerializable(SpeechResultReceiver.PARAM_FFT_SUM, fftsum);
-            mReceiver.send(SpeechState.MIC_ACTIVITY.ordinal(), bundle);
+            mDispatcher.onMicActivity(fftsum);
         }
 
         @Override
         public void onDecoding() {
-            Bundle bundle = new Bundle();
-            mReceiver.send(SpeechState.DECODING.ordinal(), bundle);
+            mDispatcher.onDecoding();
         }
 
         @Override
         public void onSTTResult(@Nullable STTResult result) {
-            mIsRunning = false;
-            Bundle bundle = new Bundle();
-            bundle.putSerializable(SpeechResultReceiver.PARAM_RESULT, result);
-            mReceiver.send(SpeechState.STT_RESULT.ordinal(), bundle);
+            if (!mContinuous) {
+                mIsRunning = false;
+            }
+            mDispatcher.onSTTResult(result);
+        }
+
+        @Override
+        public void onPartialResult(@NonNull STTPartialResult partial) {
+            mDispatcher.onPartialResult(partial);
         }
 
         @Override
         public void onNoVoice() {
             mIsRunning = false;
-            Bundle bundle = new Bundle();
-            mReceiver.send(SpeechState.NO_VOICE.ordinal(), bundle);
+            mDispatcher.onNoVoice();
         }
 
         @Override
         public void onError(@ErrorType int errorType, @Nullable String error) {
-            mIsRunning = false;
-            Bundle bundle = new Bundle();
-            bundle.putSerializable(SpeechResultReceiver.PARAM_RESULT, error);
-            mReceiver.send(SpeechState.ERROR.ordinal(), bundle);
+            // A failed utterance doesn't end a continuous session, a failed client does
+            if (!mContinuous) {
+                mIsRunning = false;
+            }
+            mDispatcher.onError(errorType, error);
         }
     };
 }
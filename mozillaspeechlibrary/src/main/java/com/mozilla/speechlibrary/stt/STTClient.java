@@ -1,9 +1,43 @@
 package com.mozilla.speechlibrary.stt;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.mozilla.speechlibrary.audio.AudioFrame;
+
+import java.util.concurrent.TimeUnit;
+
 public interface STTClient {
     default void initEncoding(int sampleRate) {};
     default void encode(final short[] buffer, final int pos, final int len) {};
+    // The frame is only borrowed for the duration of the call, retain it to keep it longer
+    default void encode(@NonNull final AudioFrame frame) {
+        encode(frame.getData(), 0, frame.getLength());
+    };
     default void endEncoding() {};
     default void process(){}
+    // Continuous sessions split the audio in utterances between initEncoding and process,
+    // clients keep their heavy state alive and report one result per utterance
+    default void beginUtterance() {}
+    default void endUtterance() {}
+    default void cancelUtterance() {}
+    // Marks the start of a trailing silence so the client may finish the utterance ahead of
+    // the endpoint, and the voice resuming after it
+    default void speculate() {}
+    default void discardSpeculation() {}
+    // Ends the session without a result, for sessions that end without voice or on an error
+    default void cancel() {}
+    // True while the client refuses audio because it can't keep up
+    default boolean isBackpressured() { return false; }
+    // Waits until audio is decoded as it's encoded rather than buffered while the client loads,
+    // true when it is or the client failed to load, false on timeout
+    default boolean awaitReady(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        return true;
+    }
+    // Audio encoded but never decoded because the client couldn't buffer it
+    default long getDroppedMs() { return 0; }
+    // Latest transcript of the utterance being decoded, null for clients without partials
+    @Nullable
+    default STTHypothesis getHypothesis() { return null; }
     default boolean isRunning() { return false; }
 }
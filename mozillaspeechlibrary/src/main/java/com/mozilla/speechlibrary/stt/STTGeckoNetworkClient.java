@@ -31,10 +31,9 @@ public class STTGeckoNetworkClient extends STTNetworkClient {
     }
 
     @Override
-    public void process() {
+    void send(@NonNull byte[] byteArray) {
         mCallback.onSTTStart();
 
-        byte[] byteArray = mBaos.toByteArray();
         ByteBuffer input = ByteBuffer.allocateDirect(byteArray.length);
         input.put(byteArray);
         WebRequest request = new WebRequest.Builder(STT_ENDPOINT)
@@ -64,19 +63,19 @@ public class STTGeckoNetworkClient extends STTNetworkClient {
 
                     } else {
                         // HTTP status is not 200
-                        mIsRunning = false;
+                        finish();
                         mCallback.onSTTError("STT Error");
                     }
 
                 } else {
                     // WebResponse body is null
-                    mIsRunning = false;
+                    finish();
                     mCallback.onSTTError("STT Error: Response body is null");
                 }
 
             } else {
                 // WebResponse is null
-                mIsRunning = false;
+                finish();
                 mCallback.onSTTError("STT Error: Unknown network Error");
             }
 
@@ -84,7 +83,7 @@ public class STTGeckoNetworkClient extends STTNetworkClient {
 
         }).exceptionally(throwable -> {
             // Exception happened
-            mIsRunning = false;
+            finish();
             throwable.printStackTrace();
             mCallback.onSTTError("STT Error: " + throwable.getMessage());
 
@@ -0,0 +1,24 @@
+package com.mozilla.speechlibrary.stt;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Last transcript a client decoded for the utterance in progress. Positions are in ms of
+ * the audio the client got for the utterance, including the pre-roll.
+ */
+public class STTHypothesis {
+
+    // Counts the utterances ended or cancelled before this one
+    public final int mUtterance;
+    public final long mCheckedMs;
+    public final long mChangedMs;
+    @NonNull
+    public final String mText;
+
+    public STTHypothesis(int aUtterance, long aCheckedMs, long aChangedMs, @NonNull String aText) {
+        this.mUtterance = aUtterance;
+        this.mCheckedMs = aCheckedMs;
+        this.mChangedMs = aChangedMs;
+        this.mText = aText;
+    }
+}
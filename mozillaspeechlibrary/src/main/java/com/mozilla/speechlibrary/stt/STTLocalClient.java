@@ -1,160 +1,708 @@
 package com.mozilla.speechlibrary.stt;
 
 import android.content.Context;
+import android.os.SystemClock;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.mozilla.speechlibrary.SpeechServiceSettings;
+import com.mozilla.speechlibrary.audio.AudioFrame;
+import com.mozilla.speechlibrary.audio.AudioFrameQueue;
+import com.mozilla.speechlibrary.audio.ClipRecorder;
+import com.mozilla.speechlibrary.model.CachedModel;
+import com.mozilla.speechlibrary.model.DecoderConfig;
+import com.mozilla.speechlibrary.model.ModelCache;
+import com.mozilla.speechlibrary.model.ModelStream;
 import com.mozilla.speechlibrary.utils.ModelUtils;
 
 import org.json.JSONObject;
-import org.mozilla.deepspeech.libdeepspeech.DeepSpeechModel;
-import org.mozilla.deepspeech.libdeepspeech.DeepSpeechStreamingState;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.FileReader;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.ShortBuffer;
-import java.nio.channels.FileChannel;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 public class STTLocalClient extends STTBaseClient implements Runnable {
 
     private static final String TAG = STTLocalClient.class.getSimpleName();
 
-    private boolean mKeepClips = false;
-    private DeepSpeechModel mModel;
-    private DeepSpeechStreamingState mStreamingState;
-    private FileChannel clipDebug;
-    private Queue<short[]> mBuffers;
-    private boolean mEndOfStream;
+    // Queued between frames to delimit utterances in continuous sessions
+    private static final AudioFrame END_OF_UTTERANCE = new AudioFrame(0);
+    private static final AudioFrame CANCEL_UTTERANCE = new AudioFrame(0);
+    // Queued at the start and the end of a trailing silence to finish a shadow stream early
+    private static final AudioFrame SPECULATE = new AudioFrame(0);
+    private static final AudioFrame DISCARD_SPECULATION = new AudioFrame(0);
+    private static final AudioFrame[] MARKERS = {
+            END_OF_UTTERANCE, CANCEL_UTTERANCE, SPECULATE, DISCARD_SPECULATION
+    };
+
+    private static final int SAMPLE_RATE = 16000;
+    // The shadow stream is fed by slices so the inference lock is released in between
+    private static final int SPECULATION_CHUNK = SAMPLE_RATE / 4;
+
+    private String mModelRoot;
+
+    @NonNull
+    private final ModelCache mModelCache;
+    private CachedModel mCachedModel;
+    private ModelStream mStreamingState;
+    private ClipRecorder mClipRecorder;
+    private AudioFrameQueue mBuffers;
+    private final Object mLoadingLock = new Object();
+    private final CountDownLatch mLoaded = new CountDownLatch(1);
+    private volatile boolean mCancelled;
+    private volatile boolean mBackpressured;
+    private short[] mChunk;
+    private int mChunkLength;
+    private int mMinChunkSamples;
+    private int mMaxChunkSamples;
+    private int mPartialIntervalSamples;
+    private float mPartialCpuBudget;
+    private long mSamplesSincePartial;
+    private long mFedSamples;
+    private long mPartialNanos;
+    @NonNull
+    private String mPartialText = "";
+    private long mUtteranceSamples;
+    private int mUtterance;
+    private long mPartialChangedSamples;
+    private volatile STTHypothesis mHypothesis;
+    private volatile boolean mModelReady;
+    private long mMaxLoadingSamples;
+    private long mLoadingSamples;
+    private long mDroppedLoadingSamples;
+    private long mModelLoadMs;
+    private DecoderConfig mDecoderConfig;
+    private long mDecoderSwitchMs;
+    private boolean mSpeculative;
+    private float mSpeculationCpuBudget;
+    private short[] mUtteranceAudio;
+    private int mUtteranceAudioLength;
+    private short[] mSpeculationChunk;
+    private String mSpeculation;
+    private long mSpeculationNanos;
+    private int mSpeculations;
+    private int mSpeculationHits;
+    private int mSpeculationsSkipped;
 
     public STTLocalClient(@NonNull Context context,
                    @NonNull SpeechServiceSettings settings,
                    @NonNull STTClientCallback callback) {
+        this(context, settings, callback, ModelCache.getInstance());
+    }
+
+    STTLocalClient(@NonNull Context context,
+                   @NonNull SpeechServiceSettings settings,
+                   @NonNull STTClientCallback callback,
+                   @NonNull ModelCache modelCache) {
         super(context, settings, callback);
 
-        String modelRoot = settings.getModelPath();
-        if (!ModelUtils.isReady(modelRoot)) {
+        mModelCache = modelCache;
+        mModelRoot = settings.getModelPath();
+        if (!ModelUtils.isReady(mModelRoot)) {
             mIsRunning = false;
-            mEndOfStream = true;
             mCallback.onSTTError("STT Error: Model not ready");
+            mLoaded.countDown();
             return;
         }
 
+        // The model is loaded by run() on the STT thread, the audio captured meanwhile is
+        // queued and fed once the stream exists
+        mMaxLoadingSamples = (long) settings.getQueueCapacityMs() * SAMPLE_RATE / 1000;
+        mBuffers = new AudioFrameQueue(mMaxLoadingSamples, settings.getOverflowPolicy());
+        mMinChunkSamples = settings.getMinFeedChunkMs() * SAMPLE_RATE / 1000;
+        mMaxChunkSamples = settings.getMaxFeedChunkMs() * SAMPLE_RATE / 1000;
+        mChunk = new short[mMaxChunkSamples];
+        mPartialIntervalSamples = settings.getPartialIntervalMs() * SAMPLE_RATE / 1000;
+        mPartialCpuBudget = settings.getPartialCpuBudget();
+        mSpeculative = settings.useSpeculativeFinalization();
+        if (mSpeculative) {
+            // Utterances longer than the max duration plus its pre-roll aren't speculated on
+            mUtteranceAudio = new short[(settings.getMaxDurationMs() + settings.getPreRollMs()) * SAMPLE_RATE / 1000];
+            mSpeculationChunk = new short[SPECULATION_CHUNK];
+            mSpeculationCpuBudget = settings.getSpeculationCpuBudget();
+        }
+        mIsRunning = true;
+    }
+
+    private boolean loadModel() {
+        long start = SystemClock.elapsedRealtime();
+
         try {
             StringBuilder infoJsonContent = new StringBuilder();
-            BufferedReader br = new BufferedReader(new FileReader(ModelUtils.getInfoJsonFolder(modelRoot)));
+            BufferedReader br = new BufferedReader(new FileReader(ModelUtils.getInfoJsonFolder(mModelRoot)));
             String line;
             while ((line = br.readLine()) != null) {
-                Log.d(TAG, "line=" + line);
                 infoJsonContent.append(line);
             }
             br.close();
             Log.d(TAG, "infoJsonContent=" + infoJsonContent);
 
         } catch (Exception e) {
-            mIsRunning = false;
-            mEndOfStream = true;
             mCallback.onSTTError("STT Error");
+            return false;
+        }
+
+        try {
+            mCachedModel = mModelCache.acquire(mModelRoot);
+
+            // Applies this session's scorer and hot-words if the previous stream had others
+            long switchStart = SystemClock.elapsedRealtime();
+            mDecoderConfig = DecoderConfig.fromSettings(mSettings, mModelRoot);
+            mStreamingState = mCachedModel.createStream(mDecoderConfig);
+            mDecoderSwitchMs = SystemClock.elapsedRealtime() - switchStart;
+
+        } catch (IOException e) {
+            e.printStackTrace();
+            closeModel();
+            mCallback.onSTTError("STT Error: " + e.getMessage());
+            return false;
+        }
+
+        openClipRecorder();
+
+        synchronized (mLoadingLock) {
+            mModelReady = true;
+        }
+        mModelLoadMs = SystemClock.elapsedRealtime() - start;
+        Log.d(TAG, "Model ready after " + mModelLoadMs + "ms, " +
+                getBufferedDuringLoadMs() + "ms of audio buffered, " +
+                getDroppedDuringLoadMs() + "ms dropped");
+
+        return true;
+    }
+
+    private void openClipRecorder() {
+        boolean keepClips = new File(mModelRoot + "/.keepClips").exists();
+        if (!keepClips && Math.random() >= mSettings.getClipSessionRate()) {
             return;
         }
 
-        int clipNumber = 0;
-        clipNumber += 1;
+        ClipRecorder recorder = new ClipRecorder(mContext, new File(mModelRoot),
+                mSettings.getClipFormat(), SAMPLE_RATE, mSettings.getMaxClips(), mSettings.getMaxClipMs());
+        try {
+            recorder.open();
+            mClipRecorder = recorder;
 
-        mKeepClips = (new File(modelRoot + "/.keepClips")).exists();
-        boolean useDecoder = !(new File(modelRoot + "/.noUseDecoder")).exists();
+        } catch (IOException e) {
+            Log.e(TAG, "Clip not recorded: " + e.getMessage());
+        }
+    }
 
-        Log.d(TAG, "keepClips=" + mKeepClips);
-        Log.d(TAG, "useDecoder=" + useDecoder);
+    private void closeClipRecorder() {
+        if (mClipRecorder != null) {
+            mClipRecorder.close();
+            Log.d(TAG, mClipRecorder.getFile() + ": " + mClipRecorder.getWrittenMs() + "ms written, " +
+                    mClipRecorder.getDroppedMs() + "ms dropped");
+            mClipRecorder = null;
+        }
+    }
 
-        if (mModel == null) {
-            Log.d(TAG, "new DeepSpeechModel(\"" + ModelUtils.getTFLiteFolder(modelRoot) + "\")");
-            mModel = new DeepSpeechModel(ModelUtils.getTFLiteFolder(modelRoot));
+    @Override
+    public void encode(final short[] aBuffer, final int pos, final int len) {
+        AudioFrame frame = new AudioFrame(len);
+        System.arraycopy(aBuffer, pos, frame.getData(), 0, len);
+        frame.setLength(len);
+        encode(frame);
+        frame.release();
+    }
+
+    @Override
+    public void encode(@NonNull final AudioFrame frame) {
+        if (mBuffers == null || (!mModelReady && !bufferWhileLoading(frame))) {
+            return;
+        }
+
+        boolean queued;
+        frame.retain();
+        try {
+            queued = mBuffers.offer(frame);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+
+        if (!queued) {
+            frame.release();
+            if (!mBackpressured) {
+                Log.w(TAG, "Decoder is falling behind, audio refused");
+            }
         }
+        mBackpressured = !queued;
+    }
 
-        if (useDecoder) {
-            mModel.enableExternalScorer(ModelUtils.getScorerFolder(modelRoot));
+    /**
+     * Until the model is loaded nothing drains the queue, frames that don't fit are dropped
+     * whatever the overflow policy instead of blocking capture for the whole load.
+     *
+     * @return false if the frame has to be dropped because the loading buffer is full.
+     */
+    private boolean bufferWhileLoading(@NonNull AudioFrame frame) {
+        synchronized (mLoadingLock) {
+            if (mModelReady) {
+                return true;
+            }
+            if (mLoadingSamples + frame.getLength() > mMaxLoadingSamples) {
+                mDroppedLoadingSamples += frame.getLength();
+                return false;
+            }
+            mLoadingSamples += frame.getLength();
+            return true;
         }
+    }
 
-        if (mKeepClips) {
-            try {
-                clipDebug = new FileOutputStream(modelRoot + "/clip_" + clipNumber + ".wav").getChannel();
+    /**
+     * Audio captured before the model was loaded, it was fed late but not lost.
+     */
+    public long getBufferedDuringLoadMs() {
+        synchronized (mLoadingLock) {
+            return mLoadingSamples * 1000 / SAMPLE_RATE;
+        }
+    }
 
-            } catch (Exception ignored) { }
+    /**
+     * Audio captured before the model was loaded that didn't fit in the loading buffer.
+     */
+    public long getDroppedDuringLoadMs() {
+        synchronized (mLoadingLock) {
+            return mDroppedLoadingSamples * 1000 / SAMPLE_RATE;
         }
+    }
 
-        mStreamingState = mModel.createStream();
-        mIsRunning = true;
-        mEndOfStream = false;
+    public long getModelLoadMs() {
+        return mModelLoadMs;
+    }
+
+    /**
+     * Time spent applying the decoder settings of the session to the cached model, included in
+     * the model load time. 0 when the previous session used the same ones.
+     */
+    public long getDecoderSwitchMs() {
+        return mDecoderSwitchMs;
+    }
+
+    /**
+     * Shadow streams finished at a silence onset.
+     */
+    public int getSpeculations() {
+        return mSpeculations;
     }
 
+    /**
+     * Speculations used as the final result, the others were discarded when the voice resumed.
+     */
+    public int getSpeculationHits() {
+        return mSpeculationHits;
+    }
+
+    public float getSpeculationHitRate() {
+        return mSpeculations > 0 ? (float) mSpeculationHits / mSpeculations : 0;
+    }
+
+    /**
+     * Silence onsets not speculated on because of the CPU budget or the utterance length.
+     */
+    public int getSpeculationsSkipped() {
+        return mSpeculationsSkipped;
+    }
+
+    public long getSpeculationMs() {
+        return mSpeculationNanos / 1000000;
+    }
+
+    @Nullable
     @Override
-    public void encode(final short[] aBuffer, final int pos, final int len) {
-        mBuffers.add(aBuffer);
+    public STTHypothesis getHypothesis() {
+        return mHypothesis;
+    }
+
+    /**
+     * Audio waiting for the decoder.
+     */
+    public long getQueueDepthMs() {
+        return mBuffers != null ? mBuffers.getDepthSamples() * 1000 / SAMPLE_RATE : 0;
+    }
+
+    public long getMaxQueueDepthMs() {
+        return mBuffers != null ? mBuffers.getMaxDepthSamples() * 1000 / SAMPLE_RATE : 0;
+    }
+
+    /**
+     * Audio lost because the queue was full, dropped or refused depending on the overflow policy.
+     */
+    public long getOverflowMs() {
+        if (mBuffers == null) {
+            return 0;
+        }
+        return (mBuffers.getDroppedSamples() + mBuffers.getRejectedSamples()) * 1000 / SAMPLE_RATE;
+    }
+
+    @Override
+    public boolean awaitReady(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        return mLoaded.await(timeout, unit);
+    }
+
+    @Override
+    public long getDroppedMs() {
+        return getDroppedDuringLoadMs() + getOverflowMs();
+    }
+
+    @Override
+    public boolean isBackpressured() {
+        return mBackpressured;
     }
 
     @Override
     public void process() {
-        mEndOfStream = true;
+        if (mBuffers != null) {
+            mBuffers.close();
+        }
+    }
+
+    @Override
+    public void cancel() {
+        mCancelled = true;
+        if (mBuffers != null) {
+            mBuffers.clear(MARKERS);
+        }
+    }
+
+    @Override
+    public void speculate() {
+        if (mBuffers != null && mSpeculative) {
+            mBuffers.putMarker(SPECULATE);
+        }
+    }
+
+    @Override
+    public void discardSpeculation() {
+        if (mBuffers != null && mSpeculative) {
+            mBuffers.putMarker(DISCARD_SPECULATION);
+        }
+    }
+
+    @Override
+    public void endUtterance() {
+        if (mBuffers != null) {
+            mBuffers.putMarker(END_OF_UTTERANCE);
+        }
+    }
+
+    @Override
+    public void cancelUtterance() {
+        if (mBuffers != null) {
+            mBuffers.putMarker(CANCEL_UTTERANCE);
+        }
     }
 
     private void closeModel() {
-        if (mModel != null) {
-            mModel.freeModel();
+        // The model stays in the cache for the next session
+        if (mCachedModel != null) {
+            mCachedModel.release();
+            mCachedModel = null;
         }
 
         mStreamingState = null;
-        mModel = null;
     }
 
     private void decode() {
+        if (mCachedModel == null) {
+            // The model failed to load, the error was already reported
+            mIsRunning = false;
+            return;
+        }
+
+        flushChunk();
+
+        // A continuous session ending between utterances has nothing left to report
+        if (mSettings.useContinuousMode() && mUtteranceSamples == 0) {
+            mStreamingState.freeStream();
+
+        } else {
+            decodeUtterance();
+        }
+
+        closeModel();
+
+        mIsRunning = false;
+    }
+
+    private void decodeUtterance() {
         mCallback.onSTTStart();
 
-        String finalDecoded = mModel.finishStream(mStreamingState);
+        String finalDecoded;
+        if (mSpeculation != null) {
+            // Nothing but silence came after the shadow stream was finished
+            finalDecoded = mSpeculation;
+            mSpeculationHits++;
+            mStreamingState.freeStream();
+
+        } else {
+            synchronized (mCachedModel.getInferenceLock()) {
+                finalDecoded = mStreamingState.finishStream();
+            }
+        }
+        mStreamingState = null;
+        mUtteranceSamples = 0;
+        resetPartial();
+        resetSpeculation();
 
         STTResult sttResult = new STTResult(finalDecoded, (float)(1.0));
         mCallback.onSTTFinished(sttResult);
+    }
 
-        closeModel();
+    private void nextUtterance(boolean decode) throws IOException {
+        if (decode) {
+            flushChunk();
+            decodeUtterance();
+
+        } else {
+            mChunkLength = 0;
+            mStreamingState.freeStream();
+            mStreamingState = null;
+            mUtteranceSamples = 0;
+            resetPartial();
+            resetSpeculation();
+        }
 
-        mIsRunning = false;
+        mUtterance++;
+
+        // Only the stream is rebuilt, the model stays loaded for the next utterance
+        mStreamingState = mCachedModel.createStream(mDecoderConfig);
+    }
+
+    /**
+     * Coalesces the frames before feeding them, every feedAudioContent crosses JNI and runs the
+     * inference step check. The chunk grows from the minimum to the maximum size as the decoder
+     * falls behind the capture, so a decoder keeping up adds at most the minimum to the lag.
+     */
+    private void feedChunked(@NonNull short[] buffer, int length) {
+        if (mMaxChunkSamples <= 0) {
+            feed(buffer, length);
+            return;
+        }
+
+        int offset = 0;
+        while (offset < length) {
+            int copy = Math.min(length - offset, mChunk.length - mChunkLength);
+            System.arraycopy(buffer, offset, mChunk, mChunkLength, copy);
+            mChunkLength += copy;
+            offset += copy;
+
+            if (mChunkLength >= targetChunkSamples()) {
+                flushChunk();
+            }
+        }
+    }
+
+    private int targetChunkSamples() {
+        long backlog = mBuffers.getDepthSamples();
+        if (backlog >= mMaxChunkSamples) {
+            return mMaxChunkSamples;
+        }
+        return (int) (mMinChunkSamples + (mMaxChunkSamples - mMinChunkSamples) * backlog / mMaxChunkSamples);
+    }
+
+    private void flushChunk() {
+        if (mChunkLength > 0) {
+            feed(mChunk, mChunkLength);
+            mChunkLength = 0;
+        }
+    }
+
+    private void feed(@NonNull short[] buffer, int length) {
+        synchronized (mCachedModel.getInferenceLock()) {
+            mStreamingState.feedAudioContent(buffer, length);
+        }
+        mFedSamples += length;
+    }
+
+    /**
+     * Sends the current hypothesis if enough audio came since the last one. It runs between
+     * frames on this thread and only when the queue is nearly empty, so partials are skipped
+     * rather than delaying the audio, and while they used less than their share of the time.
+     */
+    private void decodePartial() {
+        if (mPartialIntervalSamples <= 0 || mSamplesSincePartial < mPartialIntervalSamples) {
+            return;
+        }
+        if (mBuffers.getDepthSamples() > Math.max(mMinChunkSamples, mPartialIntervalSamples / 2)) {
+            return;
+        }
+        double audioNanos = mFedSamples * 1e9 / SAMPLE_RATE;
+        if (mPartialNanos > audioNanos * mPartialCpuBudget) {
+            return;
+        }
+
+        mSamplesSincePartial = 0;
+        flushChunk();
+
+        long start = System.nanoTime();
+        String text;
+        synchronized (mCachedModel.getInferenceLock()) {
+            text = mStreamingState.intermediateDecode();
+        }
+        mPartialNanos += System.nanoTime() - start;
+
+        if (text == null) {
+            return;
+        }
+        if (!text.equals(mPartialText)) {
+            mPartialChangedSamples = mUtteranceSamples;
+        }
+        mHypothesis = new STTHypothesis(mUtterance,
+                mUtteranceSamples * 1000 / SAMPLE_RATE,
+                mPartialChangedSamples * 1000 / SAMPLE_RATE,
+                text);
+
+        STTPartialResult partial = STTPartialResult.diff(mPartialText, text);
+        mPartialText = text;
+        if (partial != null) {
+            mCallback.onSTTPartial(partial);
+        }
+    }
+
+    /**
+     * Finishes a copy of the utterance so far on a shadow stream, the result is used if only
+     * silence comes before the endpoint. The whole utterance is decoded again so it only runs
+     * while the time spent on it stays within its share of the audio duration, and by slices so
+     * other streams of the model aren't held up for the whole decode.
+     */
+    private void speculateNow() {
+        mSpeculation = null;
+        double audioNanos = mFedSamples * 1e9 / SAMPLE_RATE;
+        if (mUtteranceAudioLength < mUtteranceSamples || mUtteranceAudioLength == 0 ||
+                mSpeculationNanos > audioNanos * mSpeculationCpuBudget) {
+            mSpeculationsSkipped++;
+            return;
+        }
+
+        long start = System.nanoTime();
+        ModelStream shadow;
+        try {
+            shadow = mCachedModel.createStream(mDecoderConfig);
+
+        } catch (IOException e) {
+            mSpeculationsSkipped++;
+            return;
+        }
+        for (int offset = 0; offset < mUtteranceAudioLength; offset += SPECULATION_CHUNK) {
+            int length = Math.min(SPECULATION_CHUNK, mUtteranceAudioLength - offset);
+            System.arraycopy(mUtteranceAudio, offset, mSpeculationChunk, 0, length);
+            synchronized (mCachedModel.getInferenceLock()) {
+                shadow.feedAudioContent(mSpeculationChunk, length);
+            }
+        }
+        synchronized (mCachedModel.getInferenceLock()) {
+            mSpeculation = shadow.finishStream();
+        }
+        mSpeculationNanos += System.nanoTime() - start;
+        mSpeculations++;
+    }
+
+    private void resetSpeculation() {
+        mSpeculation = null;
+        mUtteranceAudioLength = 0;
+    }
+
+    private void recordUtterance(@NonNull short[] buffer, int length) {
+        if (mUtteranceAudioLength + length <= mUtteranceAudio.length) {
+            System.arraycopy(buffer, 0, mUtteranceAudio, mUtteranceAudioLength, length);
+            mUtteranceAudioLength += length;
+        }
+    }
+
+    private void resetPartial() {
+        mPartialText = "";
+        mSamplesSincePartial = 0;
+        mPartialChangedSamples = 0;
+        mHypothesis = null;
     }
 
     @Override
     public void run() {
-        mBuffers = new ConcurrentLinkedQueue<>();
+        if (mBuffers == null) {
+            return;
+        }
 
-        while (!mEndOfStream || mBuffers.size() > 0) {
-            short[] aBuffer = mBuffers.poll();
+        boolean loaded = loadModel();
+        mLoaded.countDown();
+        if (!loaded) {
+            mIsRunning = false;
+            mBuffers.clear(MARKERS);
+            return;
+        }
 
-            if (aBuffer == null) {
-                continue;
+        try {
+            feed();
+
+        } catch (InterruptedException e) {
+            mCancelled = true;
+
+        } catch (IOException e) {
+            // Another session switched the scorer and this one's can't be loaded anymore
+            mCallback.onSTTError("STT Error: " + e.getMessage());
+            mCancelled = true;
+        }
+
+        Log.d(TAG, "Max queue depth " + getMaxQueueDepthMs() + "ms, " + getOverflowMs() + "ms overflowed");
+        if (mSpeculative) {
+            Log.d(TAG, "Speculation: " + mSpeculationHits + " hits of " + mSpeculations + ", " +
+                    mSpeculationsSkipped + " skipped, " + mSpeculationNanos / 1000000 + "ms");
+        }
+
+        if (mCancelled) {
+            mBuffers.clear(MARKERS);
+            if (mStreamingState != null) {
+                mStreamingState.freeStream();
             }
+            closeModel();
+            mIsRunning = false;
 
-            this.mModel.feedAudioContent(mStreamingState, aBuffer, aBuffer.length);
+        } else {
+            decode();
+        }
 
-            // DEBUG
-            if (mKeepClips) {
-                ByteBuffer myByteBuffer = ByteBuffer.allocate(aBuffer.length * 2);
-                myByteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+        // After the result so finishing the clip doesn't delay it
+        closeClipRecorder();
+    }
 
-                ShortBuffer myShortBuffer = myByteBuffer.asShortBuffer();
-                myShortBuffer.put(aBuffer);
+    private void feed() throws InterruptedException, IOException {
+        AudioFrame frame;
+        while ((frame = mBuffers.take()) != null) {
+            if (frame == END_OF_UTTERANCE || frame == CANCEL_UTTERANCE) {
+                nextUtterance(frame == END_OF_UTTERANCE);
+                continue;
+            }
+            if (frame == SPECULATE) {
+                speculateNow();
+                continue;
+            }
+            if (frame == DISCARD_SPECULATION) {
+                mSpeculation = null;
+                continue;
+            }
 
-                try {
-                    clipDebug.write(myByteBuffer);
+            short[] aBuffer = frame.getData();
+            int length = frame.getLength();
+            feedChunked(aBuffer, length);
+            if (mSpeculative) {
+                recordUtterance(aBuffer, length);
+            }
+            mUtteranceSamples += length;
+            mSamplesSincePartial += length;
+            decodePartial();
 
-                } catch (Exception ignored) {}
+            if (mClipRecorder != null) {
+                mClipRecorder.write(frame);
             }
-        }
 
-        decode();
+            frame.release();
+        }
     }
 }
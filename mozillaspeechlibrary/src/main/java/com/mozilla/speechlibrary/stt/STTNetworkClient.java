@@ -19,12 +19,16 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class STTNetworkClient extends STTBaseClient {
 
     static final String STT_ENDPOINT = "https://speaktome-2.services.mozilla.com/";
 
     private Encoder mEncoder;
+    private int mSampleRate;
+    private ExecutorService mUtteranceExecutor;
     ByteArrayOutputStream mBaos;
 
     public STTNetworkClient(@NonNull Context context,
@@ -38,6 +42,20 @@ public class STTNetworkClient extends STTBaseClient {
 
     @Override
     public void process() {
+        if (mSettings.useContinuousMode()) {
+            // Every utterance was already sent by endUtterance, let the pending ones finish
+            if (mUtteranceExecutor != null) {
+                mUtteranceExecutor.shutdown();
+                mUtteranceExecutor = null;
+            }
+            mIsRunning = false;
+            return;
+        }
+
+        send(mBaos.toByteArray());
+    }
+
+    void send(@NonNull byte[] body) {
         try {
             mCallback.onSTTStart();
 
@@ -50,7 +68,7 @@ public class STTNetworkClient extends STTBaseClient {
             con.setRequestProperty("Product-Tag", mSettings.getProductTag());
 
             OutputStream os = con.getOutputStream();
-            os.write(mBaos.toByteArray());
+            os.write(body);
             os.close();
 
             int responseCode = con.getResponseCode();
@@ -66,13 +84,13 @@ public class STTNetworkClient extends STTBaseClient {
                 parseBody(new String(response));
 
             } else {
-                mIsRunning = false;
+                finish();
 
                 mCallback.onSTTError("STT Error");
             }
 
         } catch(Exception e) {
-            mIsRunning = false;
+            finish();
 
             e.printStackTrace();
             mCallback.onSTTError("STT Error: " + e.getMessage());
@@ -81,18 +99,61 @@ public class STTNetworkClient extends STTBaseClient {
 
     @Override
     public void initEncoding(int sampleRate) {
-        EncoderInfo ef = new EncoderInfo(1, sampleRate, 16);
+        mSampleRate = sampleRate;
+        // Continuous sessions upload every utterance as its own file
+        if (!mSettings.useContinuousMode()) {
+            createEncoder();
+        }
+    }
+
+    private void createEncoder() {
+        EncoderInfo ef = new EncoderInfo(1, mSampleRate, 16);
         mEncoder = Factory.getEncoder(mContext, FormatOPUS.EXT, ef, mBaos);
     }
 
     @Override
     public void encode(final short[] buffer, final int pos, final int len) {
-        mEncoder.encode(buffer, pos, len);
+        if (mEncoder != null) {
+            mEncoder.encode(buffer, pos, len);
+        }
     }
 
     @Override
     public void endEncoding() {
-        mEncoder.close();
+        if (mEncoder != null) {
+            mEncoder.close();
+            mEncoder = null;
+        }
+    }
+
+    @Override
+    public void beginUtterance() {
+        mBaos = new ByteArrayOutputStream();
+        createEncoder();
+    }
+
+    @Override
+    public void endUtterance() {
+        endEncoding();
+
+        byte[] body = mBaos.toByteArray();
+        if (mUtteranceExecutor == null) {
+            mUtteranceExecutor = Executors.newSingleThreadExecutor();
+        }
+        mUtteranceExecutor.execute(() -> send(body));
+    }
+
+    @Override
+    public void cancelUtterance() {
+        endEncoding();
+        mBaos = new ByteArrayOutputStream();
+    }
+
+    // Continuous sessions keep running until process() no matter how an utterance ended
+    void finish() {
+        if (!mSettings.useContinuousMode()) {
+            mIsRunning = false;
+        }
     }
 
     void parseBody(@NonNull String body) {
@@ -103,13 +164,13 @@ public class STTNetworkClient extends STTBaseClient {
             final String confidence = results.getJSONObject(0).getString("confidence");
             STTResult sttResult = new STTResult(transcription, Float.parseFloat(confidence));
 
-            mIsRunning = false;
+            finish();
             mCallback.onSTTFinished(sttResult);
 
         } catch (Exception exc) {
             String error = String.format("Response error: %s", exc.getMessage());
 
-            mIsRunning = false;
+            finish();
             mCallback.onSTTError(error);
         }
     }
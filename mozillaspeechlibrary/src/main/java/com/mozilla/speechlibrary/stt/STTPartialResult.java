@@ -0,0 +1,59 @@
+package com.mozilla.speechlibrary.stt;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.Serializable;
+
+/**
+ * Change to the hypothesis of the utterance being decoded. The first {@link #mStableLength}
+ * characters of the previous partial text stay, everything after them is replaced by
+ * {@link #mSuffix}. The first partial of every utterance has a stable length of 0.
+ */
+public class STTPartialResult implements Serializable {
+
+    public int mStableLength;
+    @NonNull
+    public String mSuffix;
+
+    STTPartialResult(int aStableLength, @NonNull String aSuffix) {
+        this.mStableLength = aStableLength;
+        this.mSuffix = aSuffix;
+    }
+
+    /**
+     * @return the new partial text given the previous one.
+     */
+    @NonNull
+    public String apply(@NonNull CharSequence previous) {
+        return previous.subSequence(0, Math.min(mStableLength, previous.length())) + mSuffix;
+    }
+
+    /**
+     * Keeps the common prefix up to the last word both texts finish, so a word that is still
+     * changing is always sent whole.
+     *
+     * @return null if the text didn't change.
+     */
+    @Nullable
+    static STTPartialResult diff(@NonNull String previous, @NonNull String current) {
+        if (previous.equals(current)) {
+            return null;
+        }
+
+        int common = 0;
+        int limit = Math.min(previous.length(), current.length());
+        while (common < limit && previous.charAt(common) == current.charAt(common)) {
+            common++;
+        }
+
+        // A prefix ending inside a word is cut back to the space before it
+        boolean wordBoundary = (common == previous.length() || previous.charAt(common) == ' ') &&
+                (common == current.length() || current.charAt(common) == ' ');
+        if (!wordBoundary) {
+            common = current.lastIndexOf(' ', common - 1) + 1;
+        }
+
+        return new STTPartialResult(common, current.substring(common));
+    }
+}
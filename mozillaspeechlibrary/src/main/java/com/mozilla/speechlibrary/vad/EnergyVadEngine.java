@@ -0,0 +1,126 @@
+package com.mozilla.speechlibrary.vad;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Energy and zero-crossing detector. A frame is voice when its level is well over the tracked
+ * noise floor, voiced sounds need a low crossing rate and quieter frames with a high crossing
+ * rate pass as fricatives. A short hangover bridges the gaps between syllables.
+ */
+public class EnergyVadEngine implements VadEngine {
+
+    private static final double FULL_SCALE = 32768;
+    // Frames under this level are never voice, whatever the floor
+    private static final double MIN_LEVEL_DB = -55;
+    private static final double VOICED_MARGIN_DB = 9;
+    private static final double FRICATIVE_MARGIN_DB = 5;
+    // Crossings per second, voiced speech stays well below, fricatives well above
+    private static final int VOICED_MAX_ZCR = 3000;
+    private static final int FRICATIVE_MIN_ZCR = 3500;
+    private static final double FLOOR_RISE_PER_SECOND = 0.5;
+    private static final double FLOOR_FALL_PER_SECOND = 20;
+    private static final int HANGOVER_MS = 80;
+
+    private final int mSampleRate;
+    private double mNoiseFloorDb;
+    private int mHangoverSamples;
+    private double mLastLevelDb;
+    private int mLastZeroCrossingRate;
+
+    public EnergyVadEngine(int sampleRate) {
+        mSampleRate = sampleRate;
+        reset();
+    }
+
+    @Override
+    public void open() {
+        reset();
+    }
+
+    private void reset() {
+        mNoiseFloorDb = Double.NaN;
+        mHangoverSamples = 0;
+    }
+
+    @Override
+    public boolean isVoice(@NonNull short[] buffer, int length) {
+        return isVoice(buffer, 0, length);
+    }
+
+    /**
+     * Decides the frames in place, without the copy the default implementation makes.
+     */
+    @Override
+    public int isVoice(@NonNull short[] buffer, int offset, int frameLength, int frames,
+                       @NonNull boolean[] decisions) {
+        for (int i = 0; i < frames; i++) {
+            decisions[i] = isVoice(buffer, offset + i * frameLength, frameLength);
+        }
+        return frames;
+    }
+
+    private boolean isVoice(@NonNull short[] buffer, int offset, int length) {
+        if (length <= 0) {
+            return false;
+        }
+
+        double sumSquares = 0;
+        int crossings = 0;
+        int previous = buffer[offset];
+        for (int i = offset; i < offset + length; i++) {
+            int sample = buffer[i];
+            sumSquares += sample * sample;
+            if ((sample ^ previous) < 0) {
+                crossings++;
+            }
+            previous = sample;
+        }
+        double rms = Math.sqrt(sumSquares / length) / FULL_SCALE;
+        double levelDb = rms > 0 ? 20 * Math.log10(rms) : -120;
+        int zcr = (int) ((long) crossings * mSampleRate / length);
+        mLastLevelDb = levelDb;
+        mLastZeroCrossingRate = zcr;
+
+        double seconds = (double) length / mSampleRate;
+        if (Double.isNaN(mNoiseFloorDb)) {
+            mNoiseFloorDb = levelDb;
+
+        } else if (levelDb < mNoiseFloorDb) {
+            mNoiseFloorDb = Math.max(levelDb, mNoiseFloorDb - FLOOR_FALL_PER_SECOND * seconds);
+
+        } else {
+            mNoiseFloorDb = Math.min(levelDb, mNoiseFloorDb + FLOOR_RISE_PER_SECOND * seconds);
+        }
+
+        double snr = levelDb - mNoiseFloorDb;
+        boolean voice = levelDb > MIN_LEVEL_DB &&
+                ((snr > VOICED_MARGIN_DB && zcr < VOICED_MAX_ZCR) ||
+                        (snr > FRICATIVE_MARGIN_DB && zcr > FRICATIVE_MIN_ZCR));
+
+        if (voice) {
+            mHangoverSamples = HANGOVER_MS * mSampleRate / 1000;
+            return true;
+        }
+
+        if (mHangoverSamples > 0) {
+            mHangoverSamples -= length;
+            return true;
+        }
+        return false;
+    }
+
+    public double getNoiseFloorDb() {
+        return mNoiseFloorDb;
+    }
+
+    public double getLastLevelDb() {
+        return mLastLevelDb;
+    }
+
+    public int getLastZeroCrossingRate() {
+        return mLastZeroCrossingRate;
+    }
+
+    @Override
+    public void close() {}
+}
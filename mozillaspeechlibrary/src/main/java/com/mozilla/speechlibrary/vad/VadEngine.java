@@ -0,0 +1,43 @@
+package com.mozilla.speechlibrary.vad;
+
+import androidx.annotation.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Voice activity detector fed with the captured frames in order, the decision may depend on
+ * the previous frames.
+ */
+public interface VadEngine extends Closeable {
+
+    void open() throws IOException;
+
+    /**
+     * @return true if the first {@code length} samples of the frame contain voice.
+     * @throws IllegalStateException if the engine can't decide on the frame, e.g. a length
+     * it doesn't support.
+     */
+    boolean isVoice(@NonNull short[] buffer, int length);
+
+    /**
+     * Decides {@code frames} consecutive frames of {@code frameLength} samples starting at
+     * {@code offset}, engines that cross into native code do it once for all of them. The
+     * default copies each frame to a scratch frame, engines should override it to decide the
+     * frames in place.
+     *
+     * @return the number of frames decided or a negative value on error.
+     */
+    default int isVoice(@NonNull short[] buffer, int offset, int frameLength, int frames,
+                        @NonNull boolean[] decisions) {
+        short[] frame = new short[frameLength];
+        for (int i = 0; i < frames; i++) {
+            System.arraycopy(buffer, offset + i * frameLength, frame, 0, frameLength);
+            decisions[i] = isVoice(frame, frameLength);
+        }
+        return frames;
+    }
+
+    @Override
+    void close();
+}
@@ -0,0 +1,19 @@
+package com.mozilla.speechlibrary.vad;
+
+import androidx.annotation.NonNull;
+
+import com.mozilla.speechlibrary.SpeechServiceSettings;
+
+public class VadEngines {
+
+    @NonNull
+    public static VadEngine create(@NonNull SpeechServiceSettings settings, int sampleRate) {
+        switch (settings.getVadType()) {
+            case ENERGY:
+                return new EnergyVadEngine(sampleRate);
+            case WEBRTC:
+            default:
+                return new WebRtcVadEngine(settings.getVadMode(), sampleRate);
+        }
+    }
+}
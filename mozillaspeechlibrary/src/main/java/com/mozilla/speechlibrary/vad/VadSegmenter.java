@@ -0,0 +1,128 @@
+package com.mozilla.speechlibrary.vad;
+
+import androidx.annotation.NonNull;
+
+import com.mozilla.speechlibrary.audio.AudioSource;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits recorded audio into voice segments. The audio is read and decided in large batches of
+ * frames so native engines cross JNI once per batch instead of once per frame.
+ */
+public class VadSegmenter {
+
+    // 10 seconds of 20ms frames
+    private static final int BATCH_FRAMES = 500;
+
+    public static class Segment {
+
+        public final long mStartMs;
+        public final long mEndMs;
+
+        Segment(long startMs, long endMs) {
+            mStartMs = startMs;
+            mEndMs = endMs;
+        }
+
+        public long getDurationMs() {
+            return mEndMs - mStartMs;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return mStartMs + "-" + mEndMs + "ms";
+        }
+    }
+
+    @NonNull
+    private final VadEngine mEngine;
+    private final int mFrameMs;
+    private final int mMinGapMs;
+
+    /**
+     * @param frameMs 10, 20 or 30ms.
+     * @param minGapMs voice segments closer than this are merged.
+     */
+    public VadSegmenter(@NonNull VadEngine engine, int frameMs, int minGapMs) {
+        mEngine = engine;
+        mFrameMs = frameMs;
+        mMinGapMs = minGapMs;
+    }
+
+    /**
+     * Reads the whole mono source, the source and the engine are opened and closed here.
+     */
+    @NonNull
+    public List<Segment> segment(@NonNull AudioSource source) throws IOException {
+        List<Segment> segments = new ArrayList<>();
+
+        source.open();
+        try {
+            if (source.getChannels() != 1) {
+                throw new IOException("Mono audio is needed, got " + source.getChannels() + " channels");
+            }
+            mEngine.open();
+
+            int frameLength = source.getSampleRate() * mFrameMs / 1000;
+            short[] batch = new short[frameLength * BATCH_FRAMES];
+            boolean[] decisions = new boolean[BATCH_FRAMES];
+            long frameIndex = 0;
+            long voiceStart = -1;
+            long voiceEnd = -1;
+
+            int read;
+            while ((read = readFully(source, batch)) >= frameLength) {
+                int frames = read / frameLength;
+                int decided = mEngine.isVoice(batch, 0, frameLength, frames, decisions);
+                if (decided < 0) {
+                    throw new IOException("VAD error " + decided + " at " + frameIndex * mFrameMs + "ms");
+                }
+
+                for (int i = 0; i < decided; i++, frameIndex++) {
+                    if (!decisions[i]) {
+                        continue;
+                    }
+                    long startMs = frameIndex * mFrameMs;
+                    if (voiceStart >= 0 && startMs - voiceEnd >= mMinGapMs) {
+                        segments.add(new Segment(voiceStart, voiceEnd));
+                        voiceStart = -1;
+                    }
+                    if (voiceStart < 0) {
+                        voiceStart = startMs;
+                    }
+                    voiceEnd = startMs + mFrameMs;
+                }
+
+                if (read < batch.length) {
+                    break;
+                }
+            }
+
+            if (voiceStart >= 0) {
+                segments.add(new Segment(voiceStart, voiceEnd));
+            }
+
+        } finally {
+            mEngine.close();
+            source.close();
+        }
+
+        return segments;
+    }
+
+    private static int readFully(@NonNull AudioSource source, @NonNull short[] buffer) throws IOException {
+        int length = 0;
+        while (length < buffer.length) {
+            int read = source.read(buffer, length, buffer.length - length);
+            if (read <= 0) {
+                break;
+            }
+            length += read;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,8 @@
+package com.mozilla.speechlibrary.vad;
+
+public enum VadType {
+    // WebRTC GMM detector through JNI
+    WEBRTC,
+    // Pure Java energy and zero-crossing detector, runs without the native library
+    ENERGY
+}
@@ -0,0 +1,55 @@
+package com.mozilla.speechlibrary.vad;
+
+import androidx.annotation.NonNull;
+
+import com.mozilla.speechlibrary.Vad;
+
+import java.io.IOException;
+
+/**
+ * The WebRTC detector. The native library is only loaded once an engine is created.
+ */
+public class WebRtcVadEngine implements VadEngine {
+
+    private final int mMode;
+    private final int mSampleRate;
+    private Vad mVad;
+
+    public WebRtcVadEngine(@Vad.Mode int mode, int sampleRate) {
+        mMode = mode;
+        mSampleRate = sampleRate;
+    }
+
+    @Override
+    public void open() throws IOException {
+        mVad = new Vad(mMode, mSampleRate);
+        int retVal = mVad.start();
+        if (retVal < 0) {
+            mVad = null;
+            throw new IOException("Error Initializing VAD: " + retVal);
+        }
+    }
+
+    @Override
+    public boolean isVoice(@NonNull short[] buffer, int length) {
+        int result = mVad.feed(buffer, length);
+        if (result < 0) {
+            throw new IllegalStateException("VAD error " + result + " on a frame of " + length + " samples");
+        }
+        return result > 0;
+    }
+
+    @Override
+    public int isVoice(@NonNull short[] buffer, int offset, int frameLength, int frames,
+                       @NonNull boolean[] decisions) {
+        return mVad.feed(buffer, offset, frameLength, frames, decisions);
+    }
+
+    @Override
+    public void close() {
+        if (mVad != null) {
+            mVad.stop();
+            mVad = null;
+        }
+    }
+}
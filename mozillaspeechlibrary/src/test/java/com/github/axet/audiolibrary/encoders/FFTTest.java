@@ -0,0 +1,61 @@
+package com.github.axet.audiolibrary.encoders;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FFTTest {
+
+    @Test
+    public void transform_matchesNaiveDft() {
+        int n = 64;
+        float[] re = new float[n];
+        float[] im = new float[n];
+        for (int i = 0; i < n; i++) {
+            re[i] = (float) (Math.sin(i * 0.7) + 0.25 * Math.cos(i * 2.1));
+        }
+        float[] input = re.clone();
+
+        new FFT(n, false).transform(re, im);
+
+        for (int k = 0; k < n; k++) {
+            double sr = 0;
+            double si = 0;
+            for (int t = 0; t < n; t++) {
+                double angle = -2 * Math.PI * k * t / n;
+                sr += input[t] * Math.cos(angle);
+                si += input[t] * Math.sin(angle);
+            }
+            assertEquals(sr, re[k], 1e-3);
+            assertEquals(si, im[k], 1e-3);
+        }
+    }
+
+    @Test
+    public void bandEnergies_peakInToneBand() {
+        int sampleRate = 16000;
+        short[] tone = new short[512];
+        for (int i = 0; i < tone.length; i++) {
+            tone[i] = (short) (Math.sin(2 * Math.PI * 1000 * i / sampleRate) * 10000);
+        }
+
+        float[] bands = new float[8];
+        new FFT(512, true).bandEnergies(tone, 0, tone.length, sampleRate, bands);
+
+        int loudest = 0;
+        for (int b = 1; b < bands.length; b++) {
+            if (bands[b] > bands[loudest]) {
+                loudest = b;
+            }
+        }
+        // 60Hz-8kHz in 8 log bands puts 1kHz in the fifth one (691Hz-1273Hz)
+        assertEquals(4, loudest);
+    }
+
+    @Test
+    public void nextPowerOfTwo() {
+        assertEquals(512, FFT.nextPowerOfTwo(320));
+        assertEquals(256, FFT.nextPowerOfTwo(256));
+        assertEquals(1, FFT.nextPowerOfTwo(0));
+    }
+}
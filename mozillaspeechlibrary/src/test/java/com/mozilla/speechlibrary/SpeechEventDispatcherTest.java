@@ -0,0 +1,102 @@
+package com.mozilla.speechlibrary;
+
+import androidx.annotation.Nullable;
+
+import com.mozilla.speechlibrary.stt.STTResult;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SpeechEventDispatcherTest {
+
+    private static class Recorder implements SpeechResultCallback {
+
+        final List<String> mEvents = new ArrayList<>();
+
+        @Override
+        public void onStartListen() {
+            mEvents.add("start");
+        }
+
+        @Override
+        public void onMicActivity(double fftsum) {
+            mEvents.add("mic " + fftsum);
+        }
+
+        @Override
+        public void onDecoding() {
+            mEvents.add("decoding");
+        }
+
+        @Override
+        public void onSTTResult(@Nullable STTResult result) {
+            mEvents.add("result");
+        }
+
+        @Override
+        public void onNoVoice() {
+            mEvents.add("novoice");
+        }
+
+        @Override
+        public void onError(int errorType, @Nullable String error) {
+            mEvents.add("error " + errorType + " " + error);
+        }
+    }
+
+    @Test
+    public void inline_deliversInOrder() {
+        SpeechEventDispatcher dispatcher = new SpeechEventDispatcher(SpeechEventDispatcher.INLINE);
+        Recorder recorder = new Recorder();
+        dispatcher.addListener(recorder);
+
+        dispatcher.onStartListen();
+        dispatcher.onMicActivity(-42.0);
+        dispatcher.onError(SpeechResultCallback.MODEL_NOT_FOUND, "missing");
+
+        assertEquals(3, recorder.mEvents.size());
+        assertEquals("mic -42.0", recorder.mEvents.get(1));
+        assertEquals("error 1 missing", recorder.mEvents.get(2));
+    }
+
+    @Test
+    public void removeFromCallback_doesNotThrow() {
+        SpeechEventDispatcher dispatcher = new SpeechEventDispatcher(SpeechEventDispatcher.INLINE);
+        Recorder second = new Recorder();
+        Recorder first = new Recorder() {
+            @Override
+            public void onDecoding() {
+                super.onDecoding();
+                dispatcher.removeListener(this);
+            }
+        };
+        dispatcher.addListener(first);
+        dispatcher.addListener(second);
+
+        dispatcher.onDecoding();
+        dispatcher.onDecoding();
+
+        assertEquals(1, first.mEvents.size());
+        assertEquals(2, second.mEvents.size());
+    }
+
+    @Test
+    public void executor_runsListenersAtDeliveryTime() {
+        List<Runnable> queue = new ArrayList<>();
+        SpeechEventDispatcher dispatcher = new SpeechEventDispatcher(queue::add);
+        Recorder recorder = new Recorder();
+        dispatcher.addListener(recorder);
+
+        dispatcher.onNoVoice();
+        assertTrue(recorder.mEvents.isEmpty());
+
+        // Removed before the queued event runs, as after SpeechRecognition.stop()
+        dispatcher.removeListener(recorder);
+        queue.get(0).run();
+        assertTrue(recorder.mEvents.isEmpty());
+    }
+}
@@ -0,0 +1,70 @@
+package com.mozilla.speechlibrary.audio;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AudioFramePoolTest {
+
+    @Test
+    public void steadyState_allocatesNothing() {
+        AudioFramePool pool = new AudioFramePool(320, 4);
+        AudioFrame[] queued = new AudioFrame[3];
+
+        for (int i = 0; i < 10000; i++) {
+            // Capture loop acquires, a consumer queues it and the loop releases its own reference
+            AudioFrame frame = pool.acquire();
+            frame.setLength(320);
+            queued[i % queued.length] = frame.retain();
+            frame.release();
+
+            // The consumer releases once it is done with an older frame
+            AudioFrame old = queued[(i + 1) % queued.length];
+            if (old != null) {
+                old.release();
+                queued[(i + 1) % queued.length] = null;
+            }
+        }
+
+        assertEquals(4, pool.getCreatedFrames());
+    }
+
+    @Test
+    public void lastRelease_returnsFrameToPool() {
+        AudioFramePool pool = new AudioFramePool(160, 1);
+
+        AudioFrame frame = pool.acquire();
+        assertEquals(0, pool.getAvailableFrames());
+
+        frame.retain();
+        frame.release();
+        assertEquals(0, pool.getAvailableFrames());
+
+        frame.release();
+        assertEquals(1, pool.getAvailableFrames());
+        assertSame(frame, pool.acquire());
+    }
+
+    @Test
+    public void exhaustedPool_growsOnDemand() {
+        AudioFramePool pool = new AudioFramePool(160, 1);
+
+        AudioFrame first = pool.acquire();
+        AudioFrame second = pool.acquire();
+        assertNotSame(first, second);
+        assertEquals(2, pool.getCreatedFrames());
+
+        first.release();
+        second.release();
+        assertEquals(1, pool.getAvailableFrames());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void releasingTwice_throws() {
+        AudioFramePool pool = new AudioFramePool(160, 1);
+
+        AudioFrame frame = pool.acquire();
+        frame.release();
+        frame.release();
+    }
+}
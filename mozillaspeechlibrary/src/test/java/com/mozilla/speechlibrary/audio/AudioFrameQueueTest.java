@@ -0,0 +1,93 @@
+package com.mozilla.speechlibrary.audio;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class AudioFrameQueueTest {
+
+    private static AudioFrame frame(AudioFramePool pool, int length) {
+        AudioFrame frame = pool.acquire();
+        frame.setLength(length);
+        return frame;
+    }
+
+    @Test
+    public void dropOldest_releasesDroppedFrame() throws Exception {
+        AudioFramePool pool = new AudioFramePool(160, 4);
+        AudioFrameQueue queue = new AudioFrameQueue(320, OverflowPolicy.DROP_OLDEST);
+
+        AudioFrame first = frame(pool, 160);
+        assertTrue(queue.offer(first));
+        assertTrue(queue.offer(frame(pool, 160)));
+        assertTrue(queue.offer(frame(pool, 160)));
+
+        assertEquals(320, queue.getDepthSamples());
+        assertEquals(160, queue.getDroppedSamples());
+        // The dropped frame went back to the pool
+        assertEquals(2, pool.getAvailableFrames());
+        assertNotSame(first, queue.take());
+    }
+
+    @Test
+    public void backpressure_refusesWhenFull() throws Exception {
+        AudioFramePool pool = new AudioFramePool(160, 4);
+        AudioFrameQueue queue = new AudioFrameQueue(160, OverflowPolicy.BACKPRESSURE);
+
+        assertTrue(queue.offer(frame(pool, 160)));
+        AudioFrame refused = frame(pool, 160);
+        assertFalse(queue.offer(refused));
+        assertEquals(160, queue.getRejectedSamples());
+        refused.release();
+    }
+
+    @Test
+    public void block_waitsForConsumer() throws Exception {
+        AudioFramePool pool = new AudioFramePool(160, 4);
+        AudioFrameQueue queue = new AudioFrameQueue(160, OverflowPolicy.BLOCK);
+        assertTrue(queue.offer(frame(pool, 160)));
+
+        Thread producer = new Thread(() -> {
+            try {
+                queue.offer(frame(pool, 160));
+
+            } catch (InterruptedException ignored) {}
+        });
+        producer.start();
+        producer.join(100);
+        assertTrue(producer.isAlive());
+
+        queue.take().release();
+        producer.join(1000);
+        assertFalse(producer.isAlive());
+        assertEquals(160, queue.getDepthSamples());
+        assertEquals(160, queue.getMaxDepthSamples());
+    }
+
+    @Test
+    public void markersIgnoreCapacity_andCloseDrains() throws Exception {
+        AudioFramePool pool = new AudioFramePool(160, 4);
+        AudioFrame marker = new AudioFrame(0);
+        AudioFrameQueue queue = new AudioFrameQueue(160, OverflowPolicy.BACKPRESSURE);
+
+        assertTrue(queue.offer(frame(pool, 160)));
+        queue.putMarker(marker);
+        queue.close();
+
+        assertFalse(queue.offer(frame(pool, 10)));
+        queue.take().release();
+        assertSame(marker, queue.take());
+        assertNull(queue.take());
+        assertTrue(queue.isDrained());
+    }
+
+    @Test
+    public void take_timesOut() throws Exception {
+        AudioFrameQueue queue = new AudioFrameQueue(160, OverflowPolicy.BLOCK);
+
+        assertNull(queue.take(10, TimeUnit.MILLISECONDS));
+        assertFalse(queue.isDrained());
+    }
+}
@@ -0,0 +1,64 @@
+package com.mozilla.speechlibrary.audio;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AudioRingBufferTest {
+
+    private static short[] range(int from, int count) {
+        short[] data = new short[count];
+        for (int i = 0; i < count; i++) {
+            data[i] = (short) (from + i);
+        }
+        return data;
+    }
+
+    @Test
+    public void overflow_keepsNewestSamples() {
+        AudioRingBuffer ring = new AudioRingBuffer(5);
+
+        ring.write(range(0, 3), 0, 3);
+        ring.write(range(3, 4), 0, 4);
+        assertEquals(5, ring.size());
+
+        short[] out = new short[5];
+        assertEquals(5, ring.read(out, 0, 5));
+        assertArrayEquals(range(2, 5), out);
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    public void largeWrite_keepsTail() {
+        AudioRingBuffer ring = new AudioRingBuffer(4);
+
+        ring.write(range(0, 10), 0, 10);
+
+        short[] out = new short[4];
+        assertEquals(4, ring.read(out, 0, 4));
+        assertArrayEquals(range(6, 4), out);
+    }
+
+    @Test
+    public void partialReads_wrapAround() {
+        AudioRingBuffer ring = new AudioRingBuffer(4);
+
+        ring.write(range(0, 3), 0, 3);
+        short[] out = new short[2];
+        ring.read(out, 0, 2);
+        ring.write(range(3, 3), 0, 3);
+
+        short[] rest = new short[4];
+        assertEquals(4, ring.read(rest, 0, 4));
+        assertArrayEquals(range(2, 4), rest);
+    }
+
+    @Test
+    public void zeroCapacity_staysEmpty() {
+        AudioRingBuffer ring = new AudioRingBuffer(0);
+
+        ring.write(range(0, 3), 0, 3);
+        assertEquals(0, ring.size());
+        assertEquals(0, ring.read(new short[3], 0, 3));
+    }
+}
@@ -0,0 +1,87 @@
+package com.mozilla.speechlibrary.audio;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class ClipRecorderTest {
+
+    private static final int SAMPLE_RATE = 16000;
+
+    private static File tempDirectory() throws IOException {
+        File directory = Files.createTempDirectory("clips").toFile();
+        directory.deleteOnExit();
+        return directory;
+    }
+
+    private static void record(ClipRecorder recorder, AudioFramePool pool, int frames) {
+        for (int i = 0; i < frames; i++) {
+            AudioFrame frame = pool.acquire();
+            short[] data = frame.getData();
+            for (int j = 0; j < data.length; j++) {
+                data[j] = (short) (i * data.length + j);
+            }
+            frame.setLength(data.length);
+            recorder.write(frame);
+            frame.release();
+        }
+    }
+
+    @Test
+    public void wav_hasHeaderAndSamples() throws IOException {
+        File directory = tempDirectory();
+        AudioFramePool pool = new AudioFramePool(320, 8);
+        ClipRecorder recorder = new ClipRecorder(null, directory, ClipFormat.WAV, SAMPLE_RATE, 5, 60000);
+        recorder.open();
+        record(recorder, pool, 10);
+        recorder.close();
+
+        byte[] bytes = Files.readAllBytes(recorder.getFile().toPath());
+        ByteBuffer wav = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(44 + 3200 * 2, bytes.length);
+        assertEquals("RIFF", new String(bytes, 0, 4, "US-ASCII"));
+        assertEquals(bytes.length - 8, wav.getInt(4));
+        assertEquals(SAMPLE_RATE, wav.getInt(24));
+        assertEquals(3200 * 2, wav.getInt(40));
+        assertEquals(1234, wav.getShort(44 + 1234 * 2));
+        assertEquals(0, recorder.getDroppedMs());
+    }
+
+    @Test
+    public void maxDuration_truncatesClip() throws IOException {
+        File directory = tempDirectory();
+        AudioFramePool pool = new AudioFramePool(320, 8);
+        ClipRecorder recorder = new ClipRecorder(null, directory, ClipFormat.WAV, SAMPLE_RATE, 5, 100);
+        recorder.open();
+        record(recorder, pool, 10);
+        recorder.close();
+
+        assertEquals(100, recorder.getWrittenMs());
+        assertEquals(100, recorder.getDroppedMs());
+        assertEquals(44 + 1600 * 2, recorder.getFile().length());
+    }
+
+    @Test
+    public void rotation_numbersClipsAndKeepsTheNewest() throws IOException {
+        File directory = tempDirectory();
+        AudioFramePool pool = new AudioFramePool(320, 8);
+
+        for (int i = 0; i < 4; i++) {
+            ClipRecorder recorder = new ClipRecorder(null, directory, ClipFormat.WAV, SAMPLE_RATE, 2, 60000);
+            recorder.open();
+            record(recorder, pool, 1);
+            recorder.close();
+            assertEquals("clip_" + (i + 1) + ".wav", recorder.getFile().getName());
+        }
+
+        assertFalse(new File(directory, "clip_2.wav").exists());
+        assertTrue(new File(directory, "clip_3.wav").exists());
+        assertTrue(new File(directory, "clip_4.wav").exists());
+    }
+}
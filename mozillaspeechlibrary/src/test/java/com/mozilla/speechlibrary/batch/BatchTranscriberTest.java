@@ -0,0 +1,147 @@
+package com.mozilla.speechlibrary.batch;
+
+import androidx.annotation.NonNull;
+
+import com.mozilla.speechlibrary.model.FakeModelBackend;
+import com.mozilla.speechlibrary.model.ModelCache;
+
+import org.junit.Test;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class BatchTranscriberTest {
+
+    private static class Results implements BatchCallback {
+
+        final List<BatchResult> mResults = Collections.synchronizedList(new ArrayList<>());
+        volatile BatchStats mStats;
+
+        @Override
+        public void onFileTranscribed(@NonNull BatchResult result) {
+            mResults.add(result);
+        }
+
+        @Override
+        public void onBatchFinished(@NonNull BatchStats stats) {
+            mStats = stats;
+        }
+    }
+
+    private static File modelRoot() throws IOException {
+        File root = Files.createTempDirectory("model").toFile();
+        for (String name : new String[] { "output_graph.tflite", "scorer", "info.json" }) {
+            File file = new File(root, name);
+            Files.write(file.toPath(), new byte[] { 0 });
+            file.deleteOnExit();
+        }
+        root.deleteOnExit();
+        return root;
+    }
+
+    private static File recording(@NonNull File directory, @NonNull String name, int samples) throws IOException {
+        File file = new File(directory, name);
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            for (int i = 0; i < samples; i++) {
+                // Little endian 16 bit PCM
+                out.writeShort(Short.reverseBytes((short) i));
+            }
+        }
+        file.deleteOnExit();
+        return file;
+    }
+
+    @Test
+    public void workers_decodeConcurrentlyOnTheirOwnModel() throws Exception {
+        File root = modelRoot();
+        List<File> files = new ArrayList<>();
+        int[] lengths = { 16000, 40000, 8000, 24000, 100 };
+        for (int i = 0; i < lengths.length; i++) {
+            files.add(recording(root, "clip" + i + ".raw", lengths[i]));
+        }
+
+        // Every worker's first feed waits for the others to be feeding too
+        int workers = 3;
+        CountDownLatch feeding = new CountDownLatch(workers);
+        AtomicBoolean overlapped = new AtomicBoolean();
+        List<FakeModelBackend> models = Collections.synchronizedList(new ArrayList<>());
+        ModelCache cache = FakeModelBackend.newCache(modelPath -> {
+            boolean[] first = { true };
+            FakeModelBackend model = new FakeModelBackend(() -> {
+                if (first[0]) {
+                    first[0] = false;
+                    feeding.countDown();
+                    try {
+                        if (feeding.await(5, TimeUnit.SECONDS)) {
+                            overlapped.set(true);
+                        }
+
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            models.add(model);
+            return model;
+        });
+        BatchTranscriber transcriber = new BatchTranscriber(null, root.getPath(), cache);
+        Results results = new Results();
+        BatchTranscriber.Job job = transcriber.transcribe(files, workers, results);
+        assertTrue(job.await(10, TimeUnit.SECONDS));
+
+        assertEquals(lengths.length, results.mResults.size());
+        for (BatchResult result : results.mResults) {
+            assertTrue(result.mError, result.isSuccess());
+            int length = lengths[files.indexOf(result.mFile)];
+            assertEquals(Integer.toString(length), result.mTranscription);
+            assertEquals(length * 1000L / 16000, result.mAudioDurationMs);
+        }
+
+        BatchStats stats = results.mStats;
+        assertEquals(lengths.length, stats.mFiles);
+        assertEquals(0, stats.mFailures);
+        assertEquals(workers, stats.mWorkers);
+        assertTrue(overlapped.get());
+
+        // One model per worker, freed at the end and never put in the cache
+        assertEquals(workers, models.size());
+        int streams = 0;
+        for (FakeModelBackend model : models) {
+            assertTrue(model.isFreed());
+            assertEquals(0, model.getOpenStreamCount());
+            assertNotNull(model.getScorerPath());
+            streams += model.getStreamCount();
+        }
+        assertEquals(lengths.length, streams);
+        assertEquals(0, cache.getResidentCount());
+    }
+
+    @Test
+    public void modelNotReady_failsEveryFile() throws Exception {
+        File root = Files.createTempDirectory("model").toFile();
+        root.deleteOnExit();
+        List<File> files = Collections.singletonList(recording(root, "clip.raw", 1600));
+
+        ModelCache cache = FakeModelBackend.newCache();
+        Results results = new Results();
+        BatchTranscriber.Job job = new BatchTranscriber(null, root.getPath(), cache)
+                .transcribe(files, 2, results);
+        assertTrue(job.await(10, TimeUnit.SECONDS));
+
+        assertEquals(1, results.mResults.size());
+        assertFalse(results.mResults.get(0).isSuccess());
+        assertEquals(1, results.mStats.mFailures);
+        assertEquals(0, cache.getResidentCount());
+    }
+}
@@ -0,0 +1,96 @@
+package com.mozilla.speechlibrary.endpoint;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EndpointerTest {
+
+    private static final int SAMPLE_RATE = 16000;
+    private static final int FRAME = 320;
+
+    private static int feed(Endpointer endpointer, boolean voice, int frames) {
+        for (int i = 0; i < frames; i++) {
+            if (endpointer.feed(voice, FRAME)) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    public void trailingSilence_endsUtterance() {
+        Endpointer endpointer = new Endpointer(SAMPLE_RATE, 250, 1500, 10000);
+
+        assertEquals(-1, feed(endpointer, true, 50));
+        // 1500ms are 75 frames of 20ms, the next one goes past the limit
+        assertEquals(76, feed(endpointer, false, 100));
+        assertEquals(EndpointReason.SILENCE, endpointer.getReason());
+        assertEquals(2520, endpointer.getElapsedMs());
+    }
+
+    @Test
+    public void voiceResets_trailingSilence() {
+        Endpointer endpointer = new Endpointer(SAMPLE_RATE, 250, 1500, 10000);
+
+        feed(endpointer, true, 20);
+        feed(endpointer, false, 70);
+        feed(endpointer, true, 5);
+        assertFalse(endpointer.isDone());
+        assertEquals(0, endpointer.getTrailingSilenceMs());
+    }
+
+    @Test
+    public void onlySilence_reportsNoVoice() {
+        Endpointer endpointer = new Endpointer(SAMPLE_RATE, 250, 1500, 10000);
+
+        assertEquals(501, feed(endpointer, false, 1000));
+        assertEquals(EndpointReason.NO_VOICE, endpointer.getReason());
+    }
+
+    @Test
+    public void decisions_dependOnSamplesOnly() {
+        Endpointer small = new Endpointer(SAMPLE_RATE, 250, 1500, 10000);
+        Endpointer large = new Endpointer(SAMPLE_RATE, 250, 1500, 10000);
+
+        for (int i = 0; i < 40; i++) {
+            small.feed(true, 160);
+        }
+        large.feed(true, 6400);
+        assertEquals(small.hasVoice(), large.hasVoice());
+        assertEquals(small.getElapsedMs(), large.getElapsedMs());
+    }
+
+    private static int feedLevel(Endpointer endpointer, boolean voice, double levelDb, int frames) {
+        for (int i = 0; i < frames; i++) {
+            if (endpointer.feed(voice, FRAME, levelDb)) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    public void quietRoom_usesShortHangover() {
+        AdaptiveEndpointer endpointer = new AdaptiveEndpointer(SAMPLE_RATE, 250, 500, 1500, 10000);
+
+        feedLevel(endpointer, false, -70, 10);
+        feedLevel(endpointer, true, -20, 50);
+        assertTrue(endpointer.getHangoverMs() < 600);
+        // Ends well before the 76 frames the fixed 1500ms hangover would take
+        int frames = feedLevel(endpointer, false, -70, 100);
+        assertTrue(frames > 25 && frames < 35);
+        assertEquals(EndpointReason.ADAPTIVE_SILENCE, endpointer.getReason());
+    }
+
+    @Test
+    public void noisyRoom_keepsMaxHangover() {
+        AdaptiveEndpointer endpointer = new AdaptiveEndpointer(SAMPLE_RATE, 250, 500, 1500, 10000);
+
+        feedLevel(endpointer, false, -30, 10);
+        feedLevel(endpointer, true, -25, 50);
+        assertEquals(1500, endpointer.getHangoverMs());
+        assertEquals(76, feedLevel(endpointer, false, -30, 100));
+        assertEquals(EndpointReason.SILENCE, endpointer.getReason());
+    }
+}
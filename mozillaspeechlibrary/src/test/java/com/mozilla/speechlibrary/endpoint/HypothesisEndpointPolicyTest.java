@@ -0,0 +1,80 @@
+package com.mozilla.speechlibrary.endpoint;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class HypothesisEndpointPolicyTest {
+
+    private static final int SAMPLE_RATE = 16000;
+    private static final int FRAME = 320;
+
+    private static Endpointer endpointer(int voiceFrames, int silenceFrames) {
+        Endpointer endpointer = new Endpointer(SAMPLE_RATE, 250, 1500, 10000);
+        for (int i = 0; i < voiceFrames; i++) {
+            endpointer.feed(true, FRAME);
+        }
+        for (int i = 0; i < silenceFrames; i++) {
+            endpointer.feed(false, FRAME);
+        }
+        return endpointer;
+    }
+
+    @Test
+    public void stableHypothesis_afterShortSilence_endsEarly() {
+        HypothesisEndpointPolicy policy = new HypothesisEndpointPolicy(300, 500, Collections.emptyList());
+        // 1000ms of voice then 400ms of silence
+        Endpointer endpointer = endpointer(50, 20);
+
+        assertTrue(policy.isOver(endpointer, "turn on the lights", 1200, 600));
+        assertTrue(endpointer.end(EndpointReason.STABLE_HYPOTHESIS));
+        assertEquals(EndpointReason.STABLE_HYPOTHESIS, endpointer.getReason());
+    }
+
+    @Test
+    public void changingHypothesis_waits() {
+        HypothesisEndpointPolicy policy = new HypothesisEndpointPolicy(300, 500, Collections.emptyList());
+        Endpointer endpointer = endpointer(50, 20);
+
+        assertFalse(policy.isOver(endpointer, "turn on the", 1200, 1000));
+    }
+
+    @Test
+    public void hypothesisBeforeSilence_waits() {
+        HypothesisEndpointPolicy policy = new HypothesisEndpointPolicy(300, 500, Collections.emptyList());
+        Endpointer endpointer = endpointer(50, 20);
+
+        // Decoded before the silence started at 1000ms, the last words may be missing
+        assertFalse(policy.isOver(endpointer, "turn on", 900, 100));
+    }
+
+    @Test
+    public void shortSilence_waits() {
+        HypothesisEndpointPolicy policy = new HypothesisEndpointPolicy(300, 500, Collections.emptyList());
+        Endpointer endpointer = endpointer(50, 10);
+
+        assertFalse(policy.isOver(endpointer, "turn on the lights", 1200, 0));
+    }
+
+    @Test
+    public void commandPhrase_skipsStabilityWindow() {
+        HypothesisEndpointPolicy policy = new HypothesisEndpointPolicy(300, 500, Arrays.asList("Stop"));
+        Endpointer endpointer = endpointer(50, 20);
+
+        assertTrue(policy.isOver(endpointer, " stop ", 1200, 1200));
+        assertFalse(policy.isOver(endpointer, "stop it", 1200, 1200));
+    }
+
+    @Test
+    public void withoutVoice_neverEnds() {
+        HypothesisEndpointPolicy policy = new HypothesisEndpointPolicy(300, 500, Collections.emptyList());
+        Endpointer endpointer = endpointer(5, 20);
+
+        assertFalse(policy.isOver(endpointer, "uh", 500, 0));
+        assertFalse(endpointer.end(EndpointReason.STABLE_HYPOTHESIS));
+        assertEquals(EndpointReason.NONE, endpointer.getReason());
+    }
+}
@@ -0,0 +1,76 @@
+package com.mozilla.speechlibrary.engine;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.mozilla.speechlibrary.SpeechServiceSettings;
+import com.mozilla.speechlibrary.stt.FakeSTTClient;
+import com.mozilla.speechlibrary.stt.STTClient;
+import com.mozilla.speechlibrary.stt.STTClientCallback;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class EngineBenchmarkTest {
+
+    private static final SpeechServiceSettings SETTINGS = new SpeechServiceSettings.Builder().build();
+
+    private static class FakeEngine implements STTEngine {
+
+        private final long mDroppedMs;
+
+        FakeEngine(long droppedMs) {
+            mDroppedMs = droppedMs;
+        }
+
+        @NonNull
+        @Override
+        public String getId() {
+            return "fake";
+        }
+
+        @Override
+        public boolean isAvailable(@NonNull SpeechServiceSettings settings) {
+            return true;
+        }
+
+        @Override
+        public long load(@NonNull Context context, @NonNull SpeechServiceSettings settings) {
+            return 42;
+        }
+
+        @NonNull
+        @Override
+        public STTClient createClient(@NonNull Context context,
+                                      @NonNull SpeechServiceSettings settings,
+                                      @NonNull STTClientCallback callback) {
+            return new FakeSTTClient(callback, mDroppedMs);
+        }
+    }
+
+    private static EngineBenchmark newBenchmark() {
+        return new EngineBenchmark(null, EngineRegistry.getInstance(),
+                new EngineScores(new FakeSharedPreferences()));
+    }
+
+    @Test
+    public void run_feedsTheWholeAudioOnceReady() throws IOException {
+        short[] audio = new short[16000 * 30];
+
+        EngineScore score = newBenchmark().run(new FakeEngine(0), SETTINGS, audio, "480000");
+
+        assertEquals("fake", score.mEngineId);
+        assertEquals(42, score.mLoadMs);
+        assertEquals(0, score.mWordErrorRate, 0);
+        assertTrue(score.mRealTimeFactor >= 0);
+    }
+
+    @Test(expected = IOException.class)
+    public void run_failsWhenAudioWasDropped() throws IOException {
+        newBenchmark().run(new FakeEngine(500), SETTINGS, new short[16000], null);
+    }
+}
@@ -0,0 +1,117 @@
+package com.mozilla.speechlibrary.engine;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.mozilla.speechlibrary.SpeechServiceSettings;
+import com.mozilla.speechlibrary.stt.STTClient;
+import com.mozilla.speechlibrary.stt.STTClientCallback;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class EngineRegistryTest {
+
+    private static final SpeechServiceSettings SETTINGS = new SpeechServiceSettings.Builder().build();
+
+    private static class FakeEngine implements STTEngine {
+
+        private final String mId;
+        private final boolean mAvailable;
+
+        FakeEngine(String id, boolean available) {
+            mId = id;
+            mAvailable = available;
+        }
+
+        @NonNull
+        @Override
+        public String getId() {
+            return mId;
+        }
+
+        @Override
+        public boolean isAvailable(@NonNull SpeechServiceSettings settings) {
+            return mAvailable;
+        }
+
+        @Override
+        public long load(@NonNull Context context, @NonNull SpeechServiceSettings settings) {
+            return 0;
+        }
+
+        @NonNull
+        @Override
+        public STTClient createClient(@NonNull Context context,
+                                      @NonNull SpeechServiceSettings settings,
+                                      @NonNull STTClientCallback callback) {
+            return new STTClient() {};
+        }
+    }
+
+    private static EngineScore score(String id, float rtf, float wer) {
+        return new EngineScore(id, "en-US", rtf, 100, wer, 0);
+    }
+
+    private static EngineRegistry registry(STTEngine... engines) {
+        EngineRegistry registry = new EngineRegistry();
+        registry.unregister(DeepSpeechEngine.ID);
+        for (STTEngine engine : engines) {
+            registry.register(engine);
+        }
+        return registry;
+    }
+
+    @Test
+    public void select_fastestAdequateEngine() {
+        EngineRegistry registry = registry(new FakeEngine("a", true), new FakeEngine("b", true),
+                new FakeEngine("c", true));
+
+        STTEngine engine = registry.select(SETTINGS, Arrays.asList(
+                score("a", 0.5f, -1), score("b", 0.3f, -1), score("c", 0.1f, 0.9f)));
+        assertEquals("b", engine.getId());
+    }
+
+    @Test
+    public void select_skipsUnavailableEngines() {
+        EngineRegistry registry = registry(new FakeEngine("a", true), new FakeEngine("b", false));
+
+        STTEngine engine = registry.select(SETTINGS, Arrays.asList(score("a", 0.5f, -1), score("b", 0.1f, -1)));
+        assertEquals("a", engine.getId());
+        assertNull(registry(new FakeEngine("b", false)).select(SETTINGS, Collections.emptyList()));
+    }
+
+    @Test
+    public void select_unmeasuredBeforeTooSlow() {
+        EngineRegistry registry = registry(new FakeEngine("a", true), new FakeEngine("b", true));
+
+        assertEquals("b", registry.select(SETTINGS, Arrays.asList(score("a", 1.5f, -1))).getId());
+        assertEquals("a", registry.select(SETTINGS, Collections.emptyList()).getId());
+        assertEquals("b", registry.select(SETTINGS,
+                Arrays.asList(score("a", 1.5f, -1), score("b", 1.2f, -1))).getId());
+    }
+
+    @Test
+    public void score_roundTrips() {
+        EngineScore score = EngineScore.parse("a", "en-US", score("a", 0.25f, 0.5f).serialize());
+
+        assertNotNull(score);
+        assertEquals(0.25f, score.mRealTimeFactor, 0);
+        assertEquals(100, score.mLoadMs);
+        assertEquals(0.5f, score.mWordErrorRate, 0);
+        assertNull(EngineScore.parse("a", "en-US", "garbage"));
+    }
+
+    @Test
+    public void wordErrorRate_countsEdits() {
+        assertEquals(0, EngineBenchmark.wordErrorRate("Turn on the lights", "turn on the lights"), 0);
+        assertEquals(0.25f, EngineBenchmark.wordErrorRate("turn on the lights", "turn on a lights"), 0);
+        assertEquals(0.5f, EngineBenchmark.wordErrorRate("turn on the lights", "turn lights"), 0);
+        assertEquals(1, EngineBenchmark.wordErrorRate("", "noise"), 0);
+    }
+}
@@ -0,0 +1,79 @@
+package com.mozilla.speechlibrary.engine;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class EngineScoresTest {
+
+    @Test
+    public void scoreRoundTrips() {
+        EngineScores scores = new EngineScores(new FakeSharedPreferences());
+        scores.put(new EngineScore("deepspeech", "en-US", 0.42f, 1234, 0.125f, 1600000000000L));
+
+        EngineScore score = scores.get("deepspeech", "en-US");
+        assertNotNull(score);
+        assertEquals("deepspeech", score.mEngineId);
+        assertEquals("en-US", score.mLanguage);
+        assertEquals(0.42f, score.mRealTimeFactor, 0);
+        assertEquals(1234, score.mLoadMs);
+        assertEquals(0.125f, score.mWordErrorRate, 0);
+        assertEquals(1600000000000L, score.mTimestamp);
+
+        assertNull(scores.get("deepspeech", "es-ES"));
+        assertNull(scores.get("other", "en-US"));
+    }
+
+    @Test
+    public void getAllOnlyReturnsTheLanguage() {
+        EngineScores scores = new EngineScores(new FakeSharedPreferences());
+        scores.put(new EngineScore("a", "en-US", 0.5f, 100, -1, 0));
+        scores.put(new EngineScore("b", "en-US", 0.8f, 200, -1, 0));
+        scores.put(new EngineScore("a", "es-ES", 0.6f, 100, -1, 0));
+
+        List<EngineScore> all = scores.getAll("en-US");
+        assertEquals(2, all.size());
+        for (EngineScore score : all) {
+            assertEquals("en-US", score.mLanguage);
+        }
+        assertEquals(1, scores.getAll("es-ES").size());
+    }
+
+    @Test
+    public void putReplacesThePreviousScore() {
+        EngineScores scores = new EngineScores(new FakeSharedPreferences());
+        scores.put(new EngineScore("a", "en-US", 0.5f, 100, -1, 0));
+        scores.put(new EngineScore("a", "en-US", 0.3f, 80, 0.2f, 1));
+
+        assertEquals(0.3f, scores.get("a", "en-US").mRealTimeFactor, 0);
+        assertEquals(1, scores.getAll("en-US").size());
+    }
+
+    @Test
+    public void corruptedValuesAreSkipped() {
+        FakeSharedPreferences preferences = new FakeSharedPreferences();
+        preferences.edit()
+                .putString("a|en-US", "not a score")
+                .putString("b|en-US", "0.5;100;x;0")
+                .putInt("c|en-US", 3)
+                .apply();
+        EngineScores scores = new EngineScores(preferences);
+        scores.put(new EngineScore("d", "en-US", 0.5f, 100, -1, 0));
+
+        assertNull(scores.get("a", "en-US"));
+        assertNull(scores.get("b", "en-US"));
+        assertEquals(1, scores.getAll("en-US").size());
+    }
+
+    @Test
+    public void clearForgetsEverything() {
+        EngineScores scores = new EngineScores(new FakeSharedPreferences());
+        scores.put(new EngineScore("a", "en-US", 0.5f, 100, -1, 0));
+        scores.clear();
+
+        assertNull(scores.get("a", "en-US"));
+        assertTrue(scores.getAll("en-US").isEmpty());
+    }
+}
@@ -0,0 +1,179 @@
+package com.mozilla.speechlibrary.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Model without native code. A stream transcribes to the number of samples fed to it, and
+ * every call is checked to be made on a live model and stream.
+ */
+public class FakeModelBackend implements ModelBackend {
+
+    private final AtomicInteger mStreams = new AtomicInteger();
+    private final AtomicInteger mOpenStreams = new AtomicInteger();
+    private final List<Integer> mFeeds = Collections.synchronizedList(new ArrayList<>());
+    private volatile String mScorerPath;
+    private volatile long mBeamWidth = 500;
+    private volatile boolean mFreed;
+    @Nullable
+    private final Runnable mOnFeed;
+
+    public FakeModelBackend() {
+        this(null);
+    }
+
+    /**
+     * @param onFeed called by every feedAudioContent of the streams, on the feeding thread.
+     */
+    public FakeModelBackend(@Nullable Runnable onFeed) {
+        mOnFeed = onFeed;
+    }
+
+    /**
+     * A cache loading fake models, for the tests of other packages.
+     */
+    @NonNull
+    public static ModelCache newCache() {
+        return newCache(modelPath -> new FakeModelBackend());
+    }
+
+    @NonNull
+    public static ModelCache newCache(@NonNull ModelLoader loader) {
+        return new ModelCache(loader);
+    }
+
+    @Override
+    public int sampleRate() {
+        return 16000;
+    }
+
+    @Override
+    public long beamWidth() {
+        return mBeamWidth;
+    }
+
+    @Override
+    public void setBeamWidth(long beamWidth) {
+        mBeamWidth = beamWidth;
+    }
+
+    @Override
+    public void enableExternalScorer(@NonNull String scorerPath) {
+        mScorerPath = scorerPath;
+    }
+
+    @Override
+    public void disableExternalScorer() {
+        mScorerPath = null;
+    }
+
+    @Override
+    public void addHotWord(@NonNull String word, float boost) {}
+
+    @Override
+    public void clearHotWords() {}
+
+    @NonNull
+    @Override
+    public ModelStream createStream() {
+        checkLive();
+        mStreams.incrementAndGet();
+        mOpenStreams.incrementAndGet();
+        return new Stream();
+    }
+
+    @Override
+    public void free() {
+        checkLive();
+        mFreed = true;
+    }
+
+    public boolean isFreed() {
+        return mFreed;
+    }
+
+    public String getScorerPath() {
+        return mScorerPath;
+    }
+
+    public int getStreamCount() {
+        return mStreams.get();
+    }
+
+    /**
+     * Streams neither finished nor freed.
+     */
+    public int getOpenStreamCount() {
+        return mOpenStreams.get();
+    }
+
+    /**
+     * Length of every feedAudioContent call, in order.
+     */
+    @NonNull
+    public List<Integer> getFeeds() {
+        synchronized (mFeeds) {
+            return new ArrayList<>(mFeeds);
+        }
+    }
+
+    private void checkLive() {
+        if (mFreed) {
+            throw new IllegalStateException("Model used after being freed");
+        }
+    }
+
+    private class Stream implements ModelStream {
+
+        private long mSamples;
+        private boolean mClosed;
+
+        @Override
+        public void feedAudioContent(@NonNull short[] buffer, int length) {
+            checkOpen();
+            if (mOnFeed != null) {
+                mOnFeed.run();
+            }
+            mFeeds.add(length);
+            mSamples += length;
+        }
+
+        @NonNull
+        @Override
+        public String intermediateDecode() {
+            checkOpen();
+            return Long.toString(mSamples);
+        }
+
+        @NonNull
+        @Override
+        public String finishStream() {
+            checkOpen();
+            close();
+            return Long.toString(mSamples);
+        }
+
+        @Override
+        public void freeStream() {
+            checkOpen();
+            close();
+        }
+
+        private void checkOpen() {
+            checkLive();
+            if (mClosed) {
+                throw new IllegalStateException("Stream used after being finished or freed");
+            }
+        }
+
+        private void close() {
+            mClosed = true;
+            mOpenStreams.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.mozilla.speechlibrary.model;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ModelCacheTest {
+
+    private final List<FakeModelBackend> mLoaded = new ArrayList<>();
+    private final AtomicInteger mLoads = new AtomicInteger();
+
+    private ModelCache newCache() {
+        return new ModelCache(modelPath -> {
+            mLoads.incrementAndGet();
+            FakeModelBackend model = new FakeModelBackend();
+            synchronized (mLoaded) {
+                mLoaded.add(model);
+            }
+            return model;
+        });
+    }
+
+    private static File modelFile(long size) throws IOException {
+        File file = Files.createTempFile("model", ".tflite").toFile();
+        file.deleteOnExit();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(size);
+        }
+        return file;
+    }
+
+    @Test
+    public void acquire_sharesOneModelPerPath() throws IOException {
+        ModelCache cache = newCache();
+        File file = modelFile(100);
+
+        CachedModel first = cache.acquire(file);
+        CachedModel second = cache.acquire(file);
+        assertSame(first, second);
+        assertSame(first.getModel(), second.getModel());
+        assertEquals(1, mLoads.get());
+        assertEquals(100, cache.getResidentBytes());
+
+        first.release();
+        second.release();
+        assertTrue(cache.isLoaded(file));
+    }
+
+    @Test
+    public void release_evictsLeastRecentlyUsedOverBudget() throws IOException {
+        ModelCache cache = newCache();
+        cache.setMemoryBudget(250);
+        File a = modelFile(100);
+        File b = modelFile(100);
+        File c = modelFile(100);
+
+        cache.acquire(a).release();
+        cache.acquire(b).release();
+        cache.acquire(a).release();
+        assertEquals(2, cache.getResidentCount());
+
+        cache.acquire(c).release();
+        assertTrue(cache.isLoaded(a));
+        assertFalse(cache.isLoaded(b));
+        assertTrue(cache.isLoaded(c));
+        assertTrue(mLoaded.get(1).isFreed());
+        assertEquals(200, cache.getResidentBytes());
+    }
+
+    @Test
+    public void modelInUse_isNeverEvicted() throws IOException {
+        ModelCache cache = newCache();
+        File file = modelFile(100);
+
+        CachedModel cached = cache.acquire(file);
+        cache.setMemoryBudget(0);
+        cache.evictIdle();
+        assertTrue(cache.isLoaded(file));
+        assertFalse(mLoaded.get(0).isFreed());
+
+        cached.release();
+        assertFalse(cache.isLoaded(file));
+        assertTrue(mLoaded.get(0).isFreed());
+
+        // Acquiring it again loads a new one
+        cache.setMemoryBudget(ModelCache.DEFAULT_MEMORY_BUDGET);
+        assertNotSame(mLoaded.get(0), cache.acquire(file).getModel());
+        assertEquals(2, mLoads.get());
+    }
+
+    @Test
+    public void loadUncached_loadsAnInstanceOutsideTheCache() throws IOException {
+        ModelCache cache = newCache();
+        String root = Files.createTempDirectory("model").toString();
+
+        ModelBackend first = cache.loadUncached(root);
+        ModelBackend second = cache.loadUncached(root);
+
+        assertNotSame(first, second);
+        assertEquals(2, mLoads.get());
+        assertEquals(0, cache.getResidentCount());
+        assertFalse(cache.isLoaded(root));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void release_moreThanAcquired_throws() throws IOException {
+        CachedModel cached = newCache().acquire(modelFile(100));
+        cached.release();
+        cached.release();
+    }
+
+    @Test
+    public void loadFailure_isRetriedByTheNextAcquire() throws IOException {
+        AtomicInteger attempts = new AtomicInteger();
+        ModelCache cache = new ModelCache(modelPath -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IOException("Broken model");
+            }
+            return new FakeModelBackend();
+        });
+        File file = modelFile(100);
+
+        try {
+            cache.acquire(file);
+            fail();
+
+        } catch (IOException e) {
+            assertEquals("Broken model", e.getMessage());
+        }
+        assertFalse(cache.isLoaded(file));
+        assertEquals(0, cache.getResidentCount());
+
+        cache.acquire(file).release();
+        assertTrue(cache.isLoaded(file));
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    public void concurrentAcquires_waitForASingleLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        ModelCache cache = new ModelCache(modelPath -> {
+            mLoads.incrementAndGet();
+            loading.countDown();
+            try {
+                proceed.await(5, TimeUnit.SECONDS);
+
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            return new FakeModelBackend();
+        });
+        File file = modelFile(100);
+
+        CachedModel[] acquired = new CachedModel[2];
+        Thread first = new Thread(() -> {
+            try {
+                acquired[0] = cache.acquire(file);
+
+            } catch (IOException ignored) {
+            }
+        });
+        first.start();
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        Thread second = new Thread(() -> {
+            try {
+                acquired[1] = cache.acquire(file);
+
+            } catch (IOException ignored) {
+            }
+        });
+        second.start();
+        proceed.countDown();
+        first.join(5000);
+        second.join(5000);
+
+        assertNotNull(acquired[0]);
+        assertSame(acquired[0], acquired[1]);
+        assertEquals(1, mLoads.get());
+    }
+
+    @Test
+    public void createStream_appliesOnlyTheDecoderChanges() throws IOException {
+        CachedModel cached = newCache().acquire(modelFile(100));
+        FakeModelBackend model = (FakeModelBackend) cached.getModel();
+
+        cached.createStream(new DecoderConfig("/scorer", 0, Collections.emptyMap())).freeStream();
+        assertEquals("/scorer", model.getScorerPath());
+        assertEquals(1, cached.getSwitchCount());
+
+        cached.createStream(new DecoderConfig("/scorer", 0, Collections.emptyMap())).freeStream();
+        assertEquals(1, cached.getSwitchCount());
+
+        cached.createStream(new DecoderConfig(null, 100, Collections.emptyMap())).freeStream();
+        assertNull(model.getScorerPath());
+        assertEquals(100, model.beamWidth());
+        assertEquals(2, cached.getSwitchCount());
+        assertEquals(0, model.getOpenStreamCount());
+    }
+}
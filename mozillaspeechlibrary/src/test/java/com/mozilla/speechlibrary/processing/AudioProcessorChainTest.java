@@ -0,0 +1,73 @@
+package com.mozilla.speechlibrary.processing;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class AudioProcessorChainTest {
+
+    private static final int SAMPLE_RATE = 16000;
+    private static final int FRAME = 320;
+
+    @Test
+    public void gain_saturatesInsteadOfWrapping() {
+        AudioProcessorChain chain = new AudioProcessorChain().add(new GainProcessor(20));
+        short[] frame = { 10000, -10000, 100 };
+
+        chain.process(frame, 2);
+
+        assertEquals(Short.MAX_VALUE, frame[0]);
+        assertEquals(Short.MIN_VALUE, frame[1]);
+        // Past the length is left alone
+        assertEquals(100, frame[2]);
+        assertEquals(2, chain.getClippedSamples());
+    }
+
+    @Test
+    public void clipGuard_keepsPeaksUnderCeiling() {
+        AudioProcessorChain chain = new AudioProcessorChain()
+                .add(new GainProcessor(20))
+                .add(new ClipGuard(SAMPLE_RATE, -1));
+        short[] frame = new short[FRAME];
+
+        for (int f = 0; f < 10; f++) {
+            for (int i = 0; i < FRAME; i++) {
+                frame[i] = (short) (Math.sin(i * 0.2) * 10000);
+            }
+            chain.process(frame, FRAME);
+            for (short sample : frame) {
+                assertTrue(Math.abs(sample) <= 32767 * 0.9);
+            }
+        }
+        assertEquals(0, chain.getClippedSamples());
+    }
+
+    @Test
+    public void highPass_removesDcOffset() {
+        AudioProcessorChain chain = new AudioProcessorChain().add(new HighPassFilter(SAMPLE_RATE, 80));
+        short[] frame = new short[FRAME];
+
+        for (int f = 0; f < 50; f++) {
+            Arrays.fill(frame, (short) 5000);
+            chain.process(frame, FRAME);
+        }
+        assertTrue(Math.abs(frame[FRAME - 1]) < 10);
+    }
+
+    @Test
+    public void stageCostIsCounted() {
+        AudioProcessorChain chain = new AudioProcessorChain()
+                .add(new HighPassFilter(SAMPLE_RATE, 80))
+                .add(new AutomaticGainControl(SAMPLE_RATE, -20, 20));
+        short[] frame = new short[FRAME];
+
+        for (int f = 0; f < 5; f++) {
+            chain.process(frame, FRAME);
+        }
+        assertEquals(5, chain.getFrames());
+        assertEquals(2, chain.getStageCount());
+        assertTrue(chain.getStageNanos(0) >= 0);
+    }
+}
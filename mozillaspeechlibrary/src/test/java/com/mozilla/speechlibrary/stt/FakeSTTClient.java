@@ -0,0 +1,49 @@
+package com.mozilla.speechlibrary.stt;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client transcribing to the number of samples encoded, encoding before it's ready is an error.
+ */
+public class FakeSTTClient implements STTClient {
+
+    @NonNull
+    private final STTClientCallback mCallback;
+    private final long mDroppedMs;
+    private boolean mReady;
+    private long mSamples;
+
+    /**
+     * @param droppedMs reported by {@link #getDroppedMs()}.
+     */
+    public FakeSTTClient(@NonNull STTClientCallback callback, long droppedMs) {
+        mCallback = callback;
+        mDroppedMs = droppedMs;
+    }
+
+    @Override
+    public boolean awaitReady(long timeout, @NonNull TimeUnit unit) {
+        mReady = true;
+        return true;
+    }
+
+    @Override
+    public void encode(short[] buffer, int pos, int len) {
+        if (!mReady) {
+            throw new IllegalStateException("Encoded before the client was ready");
+        }
+        mSamples += len;
+    }
+
+    @Override
+    public void process() {
+        mCallback.onSTTFinished(new STTResult(Long.toString(mSamples), 1));
+    }
+
+    @Override
+    public long getDroppedMs() {
+        return mDroppedMs;
+    }
+}
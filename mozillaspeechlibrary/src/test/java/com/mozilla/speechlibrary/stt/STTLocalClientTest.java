@@ -0,0 +1,298 @@
+package com.mozilla.speechlibrary.stt;
+
+import androidx.annotation.NonNull;
+
+import com.mozilla.speechlibrary.SpeechServiceSettings;
+import com.mozilla.speechlibrary.audio.OverflowPolicy;
+import com.mozilla.speechlibrary.model.CachedModel;
+import com.mozilla.speechlibrary.model.FakeModelBackend;
+import com.mozilla.speechlibrary.model.ModelCache;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class STTLocalClientTest {
+
+    private static final int FRAME = 320;
+
+    private static class Results implements STTClientCallback {
+
+        final List<String> mTranscriptions = new ArrayList<>();
+        final List<String> mErrors = new ArrayList<>();
+
+        @Override
+        public void onSTTStart() {}
+
+        @Override
+        public void onSTTError(@NonNull String error) {
+            mErrors.add(error);
+        }
+
+        @Override
+        public void onSTTFinished(@NonNull STTResult result) {
+            mTranscriptions.add(result.mTranscription);
+        }
+    }
+
+    private static File modelRoot() throws IOException {
+        File root = Files.createTempDirectory("model").toFile();
+        for (String name : new String[] { "output_graph.tflite", "scorer", "info.json" }) {
+            File file = new File(root, name);
+            Files.write(file.toPath(), new byte[] { 0 });
+            file.deleteOnExit();
+        }
+        root.deleteOnExit();
+        return root;
+    }
+
+    private static void encode(@NonNull STTLocalClient client, int frames) {
+        short[] frame = new short[FRAME];
+        for (int i = 0; i < frames; i++) {
+            client.encode(frame, 0, FRAME);
+        }
+    }
+
+    private static FakeModelBackend model(@NonNull ModelCache cache, @NonNull File root) throws IOException {
+        CachedModel cached = cache.acquire(root.getPath());
+        cached.release();
+        return (FakeModelBackend) cached.getModel();
+    }
+
+    @Test
+    public void modelNotReady_reportsError() throws IOException {
+        File root = Files.createTempDirectory("model").toFile();
+        root.deleteOnExit();
+        SpeechServiceSettings settings = new SpeechServiceSettings.Builder()
+                .withModelPath(root.getPath())
+                .build();
+        Results results = new Results();
+
+        STTLocalClient client = new STTLocalClient(null, settings, results, FakeModelBackend.newCache());
+
+        assertFalse(client.isRunning());
+        assertEquals(1, results.mErrors.size());
+    }
+
+    @Test
+    public void audioBeforeLoad_isBufferedUpToCapacity() throws IOException {
+        File root = modelRoot();
+        SpeechServiceSettings settings = new SpeechServiceSettings.Builder()
+                .withModelPath(root.getPath())
+                .withHandOffQueue(100, OverflowPolicy.BLOCK)
+                .build();
+        Results results = new Results();
+        STTLocalClient client = new STTLocalClient(null, settings, results, FakeModelBackend.newCache());
+
+        // 200ms captured while the model isn't loaded yet, the first 100ms fit
+        encode(client, 10);
+        client.process();
+        client.run();
+
+        assertEquals(Collections.singletonList("1600"), results.mTranscriptions);
+        assertEquals(100, client.getBufferedDuringLoadMs());
+        assertEquals(100, client.getDroppedDuringLoadMs());
+        assertFalse(client.isRunning());
+    }
+
+    @Test
+    public void audioAfterReady_isDecodedWhole() throws Exception {
+        File root = modelRoot();
+        SpeechServiceSettings settings = new SpeechServiceSettings.Builder()
+                .withModelPath(root.getPath())
+                .withHandOffQueue(100, OverflowPolicy.BLOCK)
+                .build();
+        Results results = new Results();
+        STTLocalClient client = new STTLocalClient(null, settings, results, FakeModelBackend.newCache());
+        Thread thread = new Thread(client);
+        thread.start();
+
+        // 20s, way over the queue capacity, blocks the caller instead of being dropped
+        assertTrue(client.awaitReady(5, TimeUnit.SECONDS));
+        encode(client, 1000);
+        client.process();
+        thread.join(5000);
+
+        assertEquals(Collections.singletonList("320000"), results.mTranscriptions);
+        assertEquals(0, client.getDroppedMs());
+    }
+
+    @Test
+    public void modelNotReady_isReadyWithTheError() throws Exception {
+        File root = Files.createTempDirectory("model").toFile();
+        root.deleteOnExit();
+        SpeechServiceSettings settings = new SpeechServiceSettings.Builder()
+                .withModelPath(root.getPath())
+                .build();
+        Results results = new Results();
+
+        STTLocalClient client = new STTLocalClient(null, settings, results, FakeModelBackend.newCache());
+
+        assertTrue(client.awaitReady(0, TimeUnit.SECONDS));
+        assertEquals(1, results.mErrors.size());
+    }
+
+    @Test
+    public void continuousMode_decodesEachUtterance() throws IOException {
+        File root = modelRoot();
+        SpeechServiceSettings settings = new SpeechServiceSettings.Builder()
+                .withModelPath(root.getPath())
+                .withContinuousMode(true)
+                .build();
+        Results results = new Results();
+        ModelCache cache = FakeModelBackend.newCache();
+        STTLocalClient client = new STTLocalClient(null, settings, results, cache);
+
+        encode(client, 5);
+        client.endUtterance();
+        encode(client, 10);
+        client.cancelUtterance();
+        encode(client, 3);
+        client.endUtterance();
+        // The session ends between utterances
+        client.process();
+        client.run();
+
+        assertEquals(Arrays.asList("1600", "960"), results.mTranscriptions);
+        assertTrue(results.mErrors.isEmpty());
+        FakeModelBackend model = model(cache, root);
+        assertEquals(4, model.getStreamCount());
+        assertEquals(0, model.getOpenStreamCount());
+    }
+
+    @Test
+    public void chunkedFeeding_coalescesFrames() throws IOException {
+        File root = modelRoot();
+        SpeechServiceSettings settings = new SpeechServiceSettings.Builder()
+                .withModelPath(root.getPath())
+                .withFeedChunk(40, 100)
+                .build();
+        Results results = new Results();
+        ModelCache cache = FakeModelBackend.newCache();
+        STTLocalClient client = new STTLocalClient(null, settings, results, cache);
+
+        encode(client, 10);
+        client.process();
+        client.run();
+
+        assertEquals(Collections.singletonList("3200"), results.mTranscriptions);
+        List<Integer> feeds = model(cache, root).getFeeds();
+        // The whole session is queued when the decoder starts, it's far behind
+        assertEquals(1600, (int) feeds.get(0));
+        assertTrue(feeds.size() < 10);
+        int total = 0;
+        for (int feed : feeds) {
+            assertTrue(feed <= 1600);
+            total += feed;
+        }
+        assertEquals(3200, total);
+    }
+
+    @Test
+    public void unchunkedFeeding_feedsEveryFrame() throws IOException {
+        File root = modelRoot();
+        SpeechServiceSettings settings = new SpeechServiceSettings.Builder()
+                .withModelPath(root.getPath())
+                .build();
+        ModelCache cache = FakeModelBackend.newCache();
+        STTLocalClient client = new STTLocalClient(null, settings, new Results(), cache);
+
+        encode(client, 10);
+        client.process();
+        client.run();
+
+        assertEquals(Collections.nCopies(10, FRAME), model(cache, root).getFeeds());
+    }
+
+    @Test
+    public void speculation_isUsedWhenOnlySilenceFollows() throws IOException {
+        File root = modelRoot();
+        SpeechServiceSettings settings = new SpeechServiceSettings.Builder()
+                .withModelPath(root.getPath())
+                .withSpeculativeFinalization(true, 200, 10)
+                .build();
+        Results results = new Results();
+        ModelCache cache = FakeModelBackend.newCache();
+        STTLocalClient client = new STTLocalClient(null, settings, results, cache);
+
+        encode(client, 50);
+        client.speculate();
+        client.process();
+        client.run();
+
+        assertEquals(Collections.singletonList("16000"), results.mTranscriptions);
+        assertEquals(1, client.getSpeculations());
+        assertEquals(1, client.getSpeculationHits());
+
+        FakeModelBackend model = model(cache, root);
+        assertEquals(2, model.getStreamCount());
+        assertEquals(0, model.getOpenStreamCount());
+        // The shadow stream gets the second to replay by slices, not in one locked call
+        List<Integer> feeds = model.getFeeds();
+        assertEquals(Collections.nCopies(50, FRAME), feeds.subList(0, 50));
+        assertEquals(Arrays.asList(4000, 4000, 4000, 4000), feeds.subList(50, feeds.size()));
+    }
+
+    @Test
+    public void speculation_isDiscardedWhenVoiceResumes() throws IOException {
+        File root = modelRoot();
+        SpeechServiceSettings settings = new SpeechServiceSettings.Builder()
+                .withModelPath(root.getPath())
+                .withSpeculativeFinalization(true, 200, 10)
+                .build();
+        Results results = new Results();
+        ModelCache cache = FakeModelBackend.newCache();
+        STTLocalClient client = new STTLocalClient(null, settings, results, cache);
+
+        encode(client, 50);
+        client.speculate();
+        encode(client, 5);
+        client.discardSpeculation();
+        client.process();
+        client.run();
+
+        assertEquals(Collections.singletonList("17600"), results.mTranscriptions);
+        assertEquals(1, client.getSpeculations());
+        assertEquals(0, client.getSpeculationHits());
+        assertEquals(0, model(cache, root).getOpenStreamCount());
+    }
+
+    @Test
+    public void speculation_isDiscardedWhenTheEndpointFiresOnVoice() throws IOException {
+        File root = modelRoot();
+        SpeechServiceSettings settings = new SpeechServiceSettings.Builder()
+                .withModelPath(root.getPath())
+                .withContinuousMode(true)
+                .withSpeculativeFinalization(true, 200, 10)
+                .build();
+        Results results = new Results();
+        ModelCache cache = FakeModelBackend.newCache();
+        STTLocalClient client = new STTLocalClient(null, settings, results, cache);
+
+        // The voice resumes on the frame reaching the max duration, the discard comes with
+        // the endpoint
+        encode(client, 50);
+        client.speculate();
+        encode(client, 1);
+        client.discardSpeculation();
+        client.endUtterance();
+        encode(client, 5);
+        client.endUtterance();
+        client.process();
+        client.run();
+
+        assertEquals(Arrays.asList("16320", "1600"), results.mTranscriptions);
+        assertEquals(1, client.getSpeculations());
+        assertEquals(0, client.getSpeculationHits());
+        assertEquals(0, model(cache, root).getOpenStreamCount());
+    }
+}
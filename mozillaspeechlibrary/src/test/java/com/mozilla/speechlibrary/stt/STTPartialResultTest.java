@@ -0,0 +1,39 @@
+package com.mozilla.speechlibrary.stt;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class STTPartialResultTest {
+
+    @Test
+    public void diff_appendsNewWords() {
+        STTPartialResult partial = STTPartialResult.diff("the cat", "the cat sat");
+
+        assertEquals(7, partial.mStableLength);
+        assertEquals(" sat", partial.mSuffix);
+        assertEquals("the cat sat", partial.apply("the cat"));
+    }
+
+    @Test
+    public void diff_resendsChangingWordWhole() {
+        STTPartialResult partial = STTPartialResult.diff("hello wor", "hello world");
+
+        assertEquals(6, partial.mStableLength);
+        assertEquals("world", partial.mSuffix);
+    }
+
+    @Test
+    public void diff_revisedEarlierWord() {
+        STTPartialResult partial = STTPartialResult.diff("i scream for", "ice cream for");
+
+        assertEquals(0, partial.mStableLength);
+        assertEquals("ice cream for", partial.apply("i scream for"));
+    }
+
+    @Test
+    public void diff_unchangedIsNull() {
+        assertNull(STTPartialResult.diff("same", "same"));
+        assertEquals("first", STTPartialResult.diff("", "first").apply(""));
+    }
+}
@@ -0,0 +1,76 @@
+package com.mozilla.speechlibrary.vad;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class EnergyVadEngineTest {
+
+    private static final int SAMPLE_RATE = 16000;
+    private static final int FRAME = 320;
+
+    private final Random mRandom = new Random(7);
+
+    private short[] noise(int amplitude) {
+        short[] frame = new short[FRAME];
+        for (int i = 0; i < FRAME; i++) {
+            frame[i] = (short) (mRandom.nextGaussian() * amplitude);
+        }
+        return frame;
+    }
+
+    private short[] vowel(int amplitude) {
+        short[] frame = noise(50);
+        for (int i = 0; i < FRAME; i++) {
+            frame[i] += (short) (Math.sin(2 * Math.PI * 220 * i / SAMPLE_RATE) * amplitude);
+        }
+        return frame;
+    }
+
+    @Test
+    public void noiseIsNotVoice() {
+        EnergyVadEngine vad = new EnergyVadEngine(SAMPLE_RATE);
+        vad.open();
+
+        for (int f = 0; f < 100; f++) {
+            assertFalse(vad.isVoice(noise(300), FRAME));
+        }
+    }
+
+    @Test
+    public void vowelOverNoiseIsVoice_thenHangsOver() {
+        EnergyVadEngine vad = new EnergyVadEngine(SAMPLE_RATE);
+        vad.open();
+
+        for (int f = 0; f < 50; f++) {
+            vad.isVoice(noise(50), FRAME);
+        }
+        for (int f = 0; f < 10; f++) {
+            assertTrue(vad.isVoice(vowel(6000), FRAME));
+        }
+
+        // 80ms of hangover is four 20ms frames
+        int hangover = 0;
+        while (vad.isVoice(noise(50), FRAME)) {
+            hangover++;
+        }
+        assertEquals(4, hangover);
+    }
+
+    @Test
+    public void floorFollowsLouderRoom() {
+        EnergyVadEngine vad = new EnergyVadEngine(SAMPLE_RATE);
+        vad.open();
+
+        for (int f = 0; f < 50; f++) {
+            vad.isVoice(noise(50), FRAME);
+        }
+        double quietFloor = vad.getNoiseFloorDb();
+        for (int f = 0; f < 500; f++) {
+            vad.isVoice(noise(400), FRAME);
+        }
+        assertTrue(vad.getNoiseFloorDb() > quietFloor + 3);
+    }
+}